@@ -0,0 +1,376 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Chapter 07 - 비동기 구조화 로거
+ *
+ * System.out.println은 호출마다 PrintStream 락을 잡고 바로 출력하고,
+ * + 연결로 메시지마다 String을 새로 만듦
+ * AsyncLogger
+ * - 미리 만든 Entry 칸들의 링 버퍼: 호출 스레드는 칸을 예약해서 자기 StringBuilder에 필드를 채우고 발행
+ *   (칸과 StringBuilder를 재사용 → 로그 한 줄에 새 객체 없음)
+ * - 쓰기 스레드 하나가 발행된 칸을 순서대로 UTF-8로 바꿔(Utf8) 재사용 바이트 배열에 모으고
+ *   버퍼가 차거나 더 읽을 칸이 없을 때 FileChannel에 한 번에 씀
+ * - 링 버퍼가 가득 차면 DROP(버리고 개수만 셈 - 로그를 잃어도 되는 경우만) 또는 BLOCK(자리가 날 때까지 대기)
+ * - 예약된 칸이 1초 안에 발행되지 않으면 건너뜀 (end()를 빠뜨린 호출 때문에 로거 전체가 멈추지 않도록)
+ *   건너뛴 칸은 새 Entry로 바꾸고, 칸마다 마지막으로 예약한 순번을 CAS로 기록
+ *   → 순번을 예약한 뒤 칸을 읽기 전에 멈췄던 호출 스레드는 자기 순번이 아닌 칸을 받지 않고 버림
+ *
+ * 한 줄 형식: <epoch 밀리초> <이벤트> key=value key=value ...
+ *
+ * 사용: logger.begin("pay").field("method", name).field("amount", amount).end();
+ *       begin으로 받은 Entry는 반드시 end()까지 호출
+ *
+ * 실행: javac AsyncLogger.java Utf8.java && java AsyncLogger
+ */
+public class AsyncLogger implements AutoCloseable {
+
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    private static final int OUT_BUFFER_BYTES = 64 * 1024;
+    private static final long PUBLISH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final Entry[] ring;  // 칸은 쓰기 스레드만 교체 (건너뛴 칸)
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final byte[] buffer = new byte[OUT_BUFFER_BYTES];
+    private final ByteBuffer out = ByteBuffer.wrap(buffer);
+    private int position;  // buffer에 모인 바이트 수 (쓰기 스레드만 사용)
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder ioErrors = new LongAdder();
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+
+    // 링 버퍼 한 칸 (한 줄)
+    public static class Entry {
+        private final AsyncLogger owner;
+        private final StringBuilder text = new StringBuilder(128);
+        private final AtomicLong claimedSequence;  // 이 칸을 마지막으로 가져간(또는 건너뛴) 순번
+        private long sequence;
+        private volatile long published = -1;
+
+        Entry(AsyncLogger owner, long claimedSequence) {
+            this.owner = owner;
+            this.claimedSequence = new AtomicLong(claimedSequence);
+        }
+
+        public Entry field(String key, CharSequence value) {
+            text.append(' ').append(key).append('=').append(value);
+            return this;
+        }
+
+        public Entry field(String key, long value) {
+            text.append(' ').append(key).append('=').append(value);
+            return this;
+        }
+
+        // 값의 일부만 (예: 카드 번호 마지막 4자리)
+        public Entry field(String key, CharSequence value, int start, int end) {
+            text.append(' ').append(key).append('=').append(value, start, end);
+            return this;
+        }
+
+        // 발행 - 이후 이 Entry는 쓰기 스레드 소유
+        public void end() {
+            published = sequence;
+            if (owner.writerParked) {
+                LockSupport.unpark(owner.writer);
+            }
+        }
+    }
+
+    // 버려지는 로그용 (아무것도 하지 않음)
+    private static final Entry DISCARD = new Entry(null, -1) {
+        @Override public Entry field(String key, CharSequence value) { return this; }
+        @Override public Entry field(String key, long value) { return this; }
+        @Override public Entry field(String key, CharSequence value, int start, int end) { return this; }
+        @Override public void end() { }
+    };
+
+    public AsyncLogger(WritableByteChannel channel, boolean closeChannel, int capacity, OverflowPolicy policy) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity는 2의 거듭제곱이어야 합니다: " + capacity);
+        }
+        this.ring = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Entry(this, i - capacity);  // 순번 i가 처음 가져감
+        }
+        this.mask = capacity - 1;
+        this.policy = policy;
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.writer = new Thread(this::runWriter, "async-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static AsyncLogger toFile(Path path, int capacity, OverflowPolicy policy) throws IOException {
+        FileChannel file = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new AsyncLogger(file, true, capacity, policy);
+    }
+
+    // 표준 출력(fd 1)을 FileChannel로 직접 씀 (닫지 않음)
+    public static AsyncLogger toStdout(int capacity, OverflowPolicy policy) {
+        return new AsyncLogger(new FileOutputStream(FileDescriptor.out).getChannel(), false, capacity, policy);
+    }
+
+    // 시스템 프로퍼티로 설정하고 JVM 종료 시 남은 로그를 씀
+    // -D<prefix>=파일 경로 (없으면 표준 출력), -D<prefix>.policy=BLOCK|DROP, -D<prefix>.capacity=8192
+    // 기본은 BLOCK (결제/영수증 로그는 잃으면 안 됨) - DROP은 밀리는 동안의 줄을 버리므로 명시해서 사용
+    public static AsyncLogger fromSystemProperties(String prefix) {
+        String path = System.getProperty(prefix);
+        OverflowPolicy policy = OverflowPolicy.valueOf(System.getProperty(prefix + ".policy", "BLOCK"));
+        int capacity = Integer.getInteger(prefix + ".capacity", 8192);
+        AsyncLogger logger;
+        try {
+            logger = path == null ? toStdout(capacity, policy) : toFile(Path.of(path), capacity, policy);
+        } catch (IOException e) {
+            throw new IllegalStateException("로그 파일을 열 수 없습니다: " + path, e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(logger::close, "async-logger-shutdown"));
+        return logger;
+    }
+
+    // === 호출 스레드 ===
+
+    public Entry begin(String event) {
+        long sequence;
+        while (true) {
+            if (closed) {
+                return DISCARD;
+            }
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= ring.length) {
+                if (policy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return DISCARD;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(1_000);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        Entry entry = ring[(int) sequence & mask];
+        // 한 바퀴 전 순번이 쓴 칸이어야 내 칸 - 예약 후 멈춘 사이 쓰기 스레드가 이 순번을 건너뛰었으면
+        // 칸이 새 Entry로 바뀌어 다음 바퀴 순번의 칸이 됐으므로 쓰지 않고 버림
+        if (!entry.claimedSequence.compareAndSet(sequence - ring.length, sequence)) {
+            return DISCARD;  // 건너뛴 줄은 쓰기 스레드가 abandoned로 셈
+        }
+        entry.sequence = sequence;
+        entry.text.setLength(0);
+        if (closed) {
+            // 닫히는 중에 예약한 칸 - 쓰기 스레드가 기다리지 않도록 빈 칸으로 발행하고 버림
+            entry.end();
+            dropped.increment();
+            return DISCARD;
+        }
+        entry.text.append(System.currentTimeMillis()).append(' ').append(event);
+        return entry;
+    }
+
+    // === 쓰기 스레드 ===
+
+    private void runWriter() {
+        long next = 0;
+        boolean waiting = false;
+        long waitingSince = 0;
+        while (true) {
+            Entry entry = ring[(int) next & mask];
+            if (entry.published == next) {
+                if (entry.text.length() > 0) {  // 빈 칸 = 닫히는 중에 버린 줄
+                    encode(entry.text);
+                }
+                next++;
+                consumed.lazySet(next);
+                waiting = false;
+                continue;
+            }
+            // 읽을 칸이 없으면 모아 둔 바이트를 한 번에 씀
+            flush();
+            if (claimed.get() > next) {
+                // 예약됐지만 아직 발행 안 된 칸 - 너무 오래 걸리면 새 칸으로 바꾸고 건너뜀
+                // (늦게 end()를 부르는 호출 스레드는 버려진 칸에 쓰게 되어 새 줄과 섞이지 않음,
+                //  아직 칸을 읽지 않은 호출 스레드는 claimedSequence가 맞지 않아 새 칸을 쓰지 않음)
+                long now = System.nanoTime();
+                if (!waiting) {
+                    waiting = true;
+                    waitingSince = now;
+                } else if (now - waitingSince > PUBLISH_TIMEOUT_NANOS) {
+                    ring[(int) next & mask] = new Entry(this, next);
+                    abandoned.increment();
+                    next++;
+                    consumed.lazySet(next);
+                    waiting = false;
+                    continue;
+                }
+            } else if (closed) {
+                break;
+            }
+            writerParked = true;
+            if (entry.published != next) {
+                LockSupport.parkNanos(1_000_000);
+            }
+            writerParked = false;
+        }
+    }
+
+    // getBytes() 없이 UTF-8 인코딩 + 줄바꿈
+    private void encode(StringBuilder text) {
+        int length = text.length();
+        for (int i = 0; i < length; i += Utf8.charCount(text, i)) {
+            if (position > buffer.length - Utf8.MAX_BYTES) {
+                flush();
+            }
+            position = Utf8.put(text, i, buffer, position);
+        }
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = '\n';
+    }
+
+    private void flush() {
+        if (position == 0) {
+            return;
+        }
+        out.clear().limit(position);
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            ioErrors.increment();  // 로그 때문에 결제가 실패하지 않도록 버리고 계속
+        }
+        position = 0;
+    }
+
+    // === 상태 ===
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // 제때 발행되지 않아 건너뛴 줄 수
+    public long getAbandoned() {
+        return abandoned.sum();
+    }
+
+    public long getIoErrors() {
+        return ioErrors.sum();
+    }
+
+    // 남은 로그를 모두 쓰고 종료 (여러 번 호출해도 됨)
+    // 발행되지 않은 칸이 있어도 건너뛰고 끝나므로 최대 CLOSE_TIMEOUT_MILLIS까지만 기다림
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+            if (closeChannel) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            ioErrors.increment();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = 4;
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String card = "****-****-****-3456";
+        System.out.println("=== 스레드 " + threads + "개 x 호출 " + perThread + "번 (호출당 2줄), 파일 출력 ===");
+
+        // println + 문자열 연결
+        Path file = Files.createTempFile("payment", ".log");
+        try (PrintStream stream = new PrintStream(new FileOutputStream(file.toFile()), true, StandardCharsets.UTF_8)) {
+            report("PrintStream.println", threads, perThread, amount -> {
+                stream.println("카드번호 " + card + "로 " + amount + "원 결제");
+                stream.println("결제 완료: " + amount + "원 (신용카드)");
+            });
+        }
+        Files.delete(file);
+
+        // DROP은 버린 호출이 바로 끝나서 호출당 시간만 보면 빨라 보임 → 실제로 파일에 쓴 줄 기준 처리량으로 비교
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            file = Files.createTempFile("payment", ".log");
+            AsyncLogger logger = toFile(file, 8192, policy);
+            long start = System.nanoTime();
+            report("AsyncLogger " + policy, threads, perThread, amount -> {
+                logger.begin("pay").field("method", "신용카드").field("card", card).field("amount", amount).end();
+                logger.begin("receipt").field("method", "신용카드").field("amount", amount).end();
+            });
+            logger.close();  // 남은 줄까지 모두 쓴 시점
+            double seconds = (System.nanoTime() - start) / 1e9;
+            try (Stream<String> lines = Files.lines(file)) {
+                long written = lines.count();
+                System.out.printf("  버림 %d줄, 파일 %d줄, 기록 처리량 %.0f줄/초%n",
+                    logger.getDropped(), written, written / seconds);
+            }
+            Files.delete(file);
+        }
+    }
+
+    private interface LogCall {
+        void log(int amount);
+    }
+
+    // 호출 한 번 = 로그 두 줄 (pay + receipt)
+    private static void report(String label, int threads, int perThread, LogCall call)
+            throws InterruptedException {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LongAdder allocated = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    call.log(i);  // 워밍업
+                }
+                long before = mx.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < perThread; i++) {
+                    call.log(10_000 + i);
+                }
+                allocated.add(mx.getCurrentThreadAllocatedBytes() - before);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        long calls = (long) threads * perThread;
+        System.out.printf("%-20s 스레드당 호출 %6.0fns, 할당 %6.1f바이트/호출%n", label,
+            (double) elapsed / perThread, (double) allocated.sum() / calls);
+    }
+}
@@ -0,0 +1,355 @@
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Chapter 07 - 락 없는 서킷 브레이커 (적응형 타임아웃)
+ *
+ * 게이트웨이가 느려지거나 오류를 내면 호출자가 매번 타임아웃까지 기다리며 스레드가 쌓임
+ * - CLOSED: 최근 windowSize번 호출의 실패율/느린 호출 비율을 추적
+ *           기준을 넘으면 OPEN
+ * - OPEN: 호출하지 않고 바로 CallNotPermittedException (빠른 실패)
+ *         openDuration이 지나면 HALF_OPEN
+ * - HALF_OPEN: halfOpenCalls번만 시험 호출, 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN
+ *              halfOpenTimeout 안에 결과가 다 오지 않으면 다시 OPEN (결과 없이 사라진 허가 대비)
+ * - 타임아웃 = 최근 호출 지연의 백분위수 x 배수 (min~max 사이로 제한)
+ *   타임아웃으로 끝난 호출도 걸린 시간을 표본에 넣음 - 성공한 호출만 쓰면 지연이 타임아웃 위로
+ *   올라갔을 때 성공이 하나도 없어서 타임아웃이 영영 따라가지 못함
+ *   HALF_OPEN 시험 호출은 최대 타임아웃으로 실행 (지금 지연을 그대로 재 봄)
+ *
+ * 상태와 그 상태의 집계(슬라이딩 윈도우, 시험 호출 수)를 Phase 객체 하나에 묶고
+ * 상태 전환은 AtomicReference CAS로 Phase를 통째로 바꿈 → 락 없음
+ * 허가(Permit)는 받을 때의 Phase를 기억하고, 그 사이 상태가 바뀌었으면 결과를 버림
+ * 시계(clock)를 바꿔 끼울 수 있어서 가짜 시계로 결정적인 테스트 가능
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int FAILURE = 1;
+    private static final int SLOW = 2;
+    private static final int RECORDED = 4;
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final String name;
+    private final Config config;
+    private final LongSupplier clock;
+    private final AtomicReference<Phase> phase;
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicLong latencySequence = new AtomicLong();
+    private volatile long timeoutNanos;
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder transitions = new LongAdder();
+
+    // 설정 (기본값에서 필요한 것만 바꿔서 사용)
+    public static final class Config {
+        int windowSize = 20;
+        int minimumCalls = 10;
+        double failureRateThreshold = 0.5;
+        double slowCallRateThreshold = 0.5;
+        long slowCallNanos = TimeUnit.MILLISECONDS.toNanos(200);
+        long openNanos = TimeUnit.SECONDS.toNanos(5);
+        int halfOpenCalls = 3;
+        long halfOpenTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+        double timeoutPercentile = 99;
+        double timeoutMultiplier = 2.0;
+        long minTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        long maxTimeoutNanos = TimeUnit.SECONDS.toNanos(2);
+
+        public Config window(int size, int minimumCalls) {
+            this.windowSize = size;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        public Config thresholds(double failureRate, double slowCallRate, long slowCallMillis) {
+            this.failureRateThreshold = failureRate;
+            this.slowCallRateThreshold = slowCallRate;
+            this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+            return this;
+        }
+
+        public Config open(long openMillis, int halfOpenCalls) {
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        // HALF_OPEN에서 시험 호출 결과를 기다리는 최대 시간
+        public Config halfOpenTimeout(long millis) {
+            this.halfOpenTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+            return this;
+        }
+
+        public Config timeout(double percentile, double multiplier, long minMillis, long maxMillis) {
+            this.timeoutPercentile = percentile;
+            this.timeoutMultiplier = multiplier;
+            this.minTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(minMillis);
+            this.maxTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+            return this;
+        }
+    }
+
+    // 상태 하나와 그 상태에서만 쓰는 집계
+    private static final class Phase {
+        final State state;
+        final long since;
+        final Window window;                   // CLOSED
+        final AtomicInteger permits;           // HALF_OPEN: 남은 시험 호출 수
+        final AtomicInteger succeeded = new AtomicInteger();
+
+        Phase(State state, long since, int windowSize, int halfOpenCalls) {
+            this.state = state;
+            this.since = since;
+            this.window = state == State.CLOSED ? new Window(windowSize) : null;
+            this.permits = new AtomicInteger(state == State.HALF_OPEN ? halfOpenCalls : 0);
+        }
+    }
+
+    // 최근 N번 호출 결과를 담는 링 버퍼 (칸을 덮어쓸 때 이전 결과를 집계에서 뺌)
+    private static final class Window {
+        final AtomicIntegerArray outcomes;
+        final AtomicLong sequence = new AtomicLong();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger slowCalls = new AtomicInteger();
+
+        Window(int size) {
+            outcomes = new AtomicIntegerArray(size);
+        }
+
+        void record(int outcome) {
+            int slot = (int) (sequence.getAndIncrement() % outcomes.length());
+            int old = outcomes.getAndSet(slot, outcome | RECORDED);
+            if ((old & RECORDED) == 0) calls.incrementAndGet();
+            if ((old & FAILURE) != 0) failures.decrementAndGet();
+            if ((old & SLOW) != 0) slowCalls.decrementAndGet();
+            if ((outcome & FAILURE) != 0) failures.incrementAndGet();
+            if ((outcome & SLOW) != 0) slowCalls.incrementAndGet();
+        }
+    }
+
+    // 호출 허가 하나 - 결과(onSuccess/onError) 또는 반납(release)은 한 번만 반영
+    public static final class Permit {
+        private final Phase phase;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(Phase phase) {
+            this.phase = phase;
+        }
+    }
+
+    // 열린 서킷에서 바로 실패 (스택 트레이스 없음 - 자주 던져지므로)
+    public static class CallNotPermittedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CallNotPermittedException(String name) {
+            super("서킷이 열려 있습니다: " + name, null, false, false);
+        }
+    }
+
+    public CircuitBreaker(String name, Config config) {
+        this(name, config, System::nanoTime);
+    }
+
+    public CircuitBreaker(String name, Config config, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.phase = new AtomicReference<>(newPhase(State.CLOSED));
+        this.timeoutNanos = config.maxTimeoutNanos;  // 지연 표본이 모이기 전에는 최대값
+    }
+
+    // === 호출 허가 ===
+
+    // 허가를 못 받으면 null. 받은 허가는 반드시 onSuccess/onError/release 중 하나로 돌려줌
+    public Permit tryAcquirePermission() {
+        while (true) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return new Permit(current);
+                case OPEN:
+                    if (clock.getAsLong() - current.since < config.openNanos) {
+                        notPermitted.increment();
+                        return null;
+                    }
+                    transition(current, State.HALF_OPEN);
+                    break;  // 바뀐 상태로 다시 판단
+                default:
+                    if (clock.getAsLong() - current.since >= config.halfOpenTimeoutNanos) {
+                        transition(current, State.OPEN);  // 시험 호출 결과가 오지 않음
+                        break;
+                    }
+                    if (current.permits.getAndUpdate(left -> left > 0 ? left - 1 : left) > 0) {
+                        return new Permit(current);
+                    }
+                    notPermitted.increment();
+                    return null;
+            }
+        }
+    }
+
+    // === 결과 기록 ===
+
+    public void onSuccess(Permit permit, long durationNanos) {
+        if (permit.done.compareAndSet(false, true)) {
+            recordLatency(durationNanos);
+            record(permit.phase, durationNanos > config.slowCallNanos ? SLOW : 0);
+        }
+    }
+
+    // 실패 (예외)
+    public void onError(Permit permit, long durationNanos) {
+        if (permit.done.compareAndSet(false, true)) {
+            record(permit.phase, FAILURE | (durationNanos > config.slowCallNanos ? SLOW : 0));
+        }
+    }
+
+    // 타임아웃 - 실패로 기록하고 걸린 시간(최대 타임아웃으로 제한)도 지연 표본에 넣음
+    public void onTimeout(Permit permit, long durationNanos) {
+        if (permit.done.compareAndSet(false, true)) {
+            recordLatency(Math.min(durationNanos, config.maxTimeoutNanos));
+            record(permit.phase, FAILURE | (durationNanos > config.slowCallNanos ? SLOW : 0));
+        }
+    }
+
+    // 결과 없이 허가만 반납 (호출자가 중단된 경우 등 - 이미 기록했으면 아무것도 안 함)
+    public void release(Permit permit) {
+        if (permit.done.compareAndSet(false, true)
+                && permit.phase.state == State.HALF_OPEN && phase.get() == permit.phase) {
+            permit.phase.permits.incrementAndGet();
+        }
+    }
+
+    private void record(Phase from, int outcome) {
+        Phase current = phase.get();
+        if (current != from) {
+            return;  // 허가를 받은 뒤 상태가 바뀜 - 이전 상태의 결과는 무시
+        }
+        if (current.state == State.CLOSED) {
+            Window window = current.window;
+            window.record(outcome);
+            int calls = window.calls.get();
+            if (calls >= config.minimumCalls
+                    && (window.failures.get() >= config.failureRateThreshold * calls
+                        || window.slowCalls.get() >= config.slowCallRateThreshold * calls)) {
+                transition(current, State.OPEN);
+            }
+        } else if (current.state == State.HALF_OPEN) {
+            if (outcome != 0) {
+                transition(current, State.OPEN);
+            } else if (current.succeeded.incrementAndGet() >= config.halfOpenCalls) {
+                transition(current, State.CLOSED);
+            }
+        }
+    }
+
+    private void transition(Phase from, State to) {
+        if (phase.compareAndSet(from, newPhase(to))) {
+            transitions.increment();
+        }
+    }
+
+    private Phase newPhase(State state) {
+        return new Phase(state, clock.getAsLong(), config.windowSize, config.halfOpenCalls);
+    }
+
+    // === 적응형 타임아웃 ===
+
+    private void recordLatency(long durationNanos) {
+        long sequence = latencySequence.getAndIncrement();
+        latencies.set((int) (sequence % LATENCY_SAMPLES), durationNanos);
+        if (sequence >= config.minimumCalls && sequence % RECOMPUTE_EVERY == 0) {
+            int count = (int) Math.min(sequence + 1, LATENCY_SAMPLES);
+            long[] samples = new long[count];
+            for (int i = 0; i < count; i++) {
+                samples[i] = latencies.get(i);
+            }
+            Arrays.sort(samples);
+            int index = (int) Math.min(count - 1, Math.ceil(count * config.timeoutPercentile / 100) - 1);
+            long timeout = (long) (samples[Math.max(0, index)] * config.timeoutMultiplier);
+            timeoutNanos = Math.max(config.minTimeoutNanos, Math.min(config.maxTimeoutNanos, timeout));
+        }
+    }
+
+    public long timeoutNanos() {
+        return timeoutNanos;
+    }
+
+    // 이 허가로 하는 호출의 타임아웃 (HALF_OPEN 시험 호출은 최대값)
+    public long timeoutNanos(Permit permit) {
+        return permit.phase.state == State.HALF_OPEN ? config.maxTimeoutNanos : timeoutNanos;
+    }
+
+    // === 동기 호출 ===
+    // 허가 확인 → 실행 → 시간 측정 (타임아웃보다 오래 걸렸으면 결과를 버리고 실패로 기록)
+    public <T> T call(Callable<T> task) throws Exception {
+        Permit permit = tryAcquirePermission();
+        if (permit == null) {
+            throw new CallNotPermittedException(name);
+        }
+        long timeout = timeoutNanos(permit);
+        long start = clock.getAsLong();
+        T result;
+        try {
+            result = task.call();
+        } catch (Throwable e) {  // Error도 실패로 기록해야 HALF_OPEN 허가가 새지 않음
+            onError(permit, clock.getAsLong() - start);
+            throw e;
+        }
+        long duration = clock.getAsLong() - start;
+        if (duration > timeout) {
+            onTimeout(permit, duration);
+            throw new TimeoutException(name + " 응답 시간 초과: "
+                + duration / 1_000_000 + "ms > " + timeout / 1_000_000 + "ms");
+        }
+        onSuccess(permit, duration);
+        return result;
+    }
+
+    // === 상태 ===
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    public double failureRate() {
+        Window window = phase.get().window;
+        return window == null || window.calls.get() == 0 ? 0 : (double) window.failures.get() / window.calls.get();
+    }
+
+    public double slowCallRate() {
+        Window window = phase.get().window;
+        return window == null || window.calls.get() == 0 ? 0 : (double) window.slowCalls.get() / window.calls.get();
+    }
+
+    public long getNotPermittedCount() {
+        return notPermitted.sum();
+    }
+
+    public long getTransitionCount() {
+        return transitions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s, 실패율 %.0f%%, 느린 호출 %.0f%%, 타임아웃 %dms, 빠른 실패 %d]",
+            name, getState(), failureRate() * 100, slowCallRate() * 100,
+            timeoutNanos / 1_000_000, getNotPermittedCount());
+    }
+}
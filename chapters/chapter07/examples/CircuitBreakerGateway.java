@@ -0,0 +1,87 @@
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Chapter 07 - 결제 방식별 서킷 브레이커를 씌운 게이트웨이
+ *
+ * 결제 방식(PaymentStrategy.getName())마다 CircuitBreaker를 하나씩 둠
+ * - 서킷이 열려 있으면 게이트웨이를 호출하지 않고 바로 CallNotPermittedException
+ * - 호출은 별도 스레드에서 실행하고 브레이커의 현재 타임아웃까지만 기다림 (HALF_OPEN 시험 호출은 최대 타임아웃)
+ *   (시간이 지나면 작업을 인터럽트하고 TimeoutException)
+ * - 호출 스레드는 maxConcurrentCalls개까지, 대기열도 같은 크기까지만
+ *   (인터럽트를 무시하는 게이트웨이가 스레드를 붙잡아도 끝없이 늘지 않음, 넘치면 RejectedExecutionException)
+ *
+ * PaymentGateway를 그대로 구현하므로 PaymentPipeline, PaymentBulkheads 앞에 끼울 수 있음
+ */
+public class CircuitBreakerGateway implements PaymentGateway, AutoCloseable {
+
+    private final PaymentGateway delegate;
+    private final CircuitBreaker.Config config;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ExecutorService callers;
+
+    public CircuitBreakerGateway(PaymentGateway delegate, CircuitBreaker.Config config) {
+        this(delegate, config, 64);
+    }
+
+    public CircuitBreakerGateway(PaymentGateway delegate, CircuitBreaker.Config config, int maxConcurrentCalls) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("동시 호출 수는 1 이상이어야 합니다: " + maxConcurrentCalls);
+        }
+        this.delegate = delegate;
+        this.config = config;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxConcurrentCalls));
+        executor.allowCoreThreadTimeOut(true);
+        this.callers = executor;
+    }
+
+    @Override
+    public List<PaymentResult> process(String method, List<PaymentRequest> batch) throws Exception {
+        CircuitBreaker breaker = breaker(method);
+        CircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        if (permit == null) {
+            throw new CircuitBreaker.CallNotPermittedException(method);
+        }
+        long timeout = breaker.timeoutNanos(permit);
+        long start = System.nanoTime();
+        Future<List<PaymentResult>> call = null;
+        try {
+            call = callers.submit(() -> delegate.process(method, batch));
+            List<PaymentResult> results = call.get(timeout, TimeUnit.NANOSECONDS);
+            breaker.onSuccess(permit, System.nanoTime() - start);
+            return results;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            breaker.onTimeout(permit, System.nanoTime() - start);
+            throw new TimeoutException(method + " 응답 시간 초과 (" + timeout / 1_000_000 + "ms)");
+        } catch (ExecutionException e) {
+            breaker.onError(permit, System.nanoTime() - start);
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (InterruptedException e) {
+            call.cancel(true);  // 호출자가 중단됨 - 게이트웨이 탓이 아니므로 결과 없이 반납 (finally)
+            throw e;
+        } finally {
+            // 실행기가 거절했거나 예상 못 한 오류로 결과를 기록하지 못한 경우 허가 반납
+            breaker.release(permit);
+        }
+    }
+
+    public CircuitBreaker breaker(String method) {
+        return breakers.computeIfAbsent(method, name -> new CircuitBreaker(name, config));
+    }
+
+    @Override
+    public void close() {
+        callers.shutdownNow();
+    }
+}
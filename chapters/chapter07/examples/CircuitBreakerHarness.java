@@ -0,0 +1,203 @@
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chapter 07 - 서킷 브레이커 결정적 테스트
+ *
+ * 가짜 시계 + 장애 주입 스텁으로 실제로 기다리지 않고 시나리오를 재현
+ * (같은 입력이면 항상 같은 결과)
+ * 1. 정상: 타임아웃이 지연 p99 x 2로 맞춰짐
+ * 2. 지연 급증: 타임아웃 실패가 쌓여 OPEN
+ * 3. OPEN: 게이트웨이를 호출하지 않고 바로 실패
+ * 4. 시간 경과 후 HALF_OPEN → 시험 호출 성공 → CLOSED
+ * 5. 오류율 상승: OPEN → 시험 호출 실패 → 다시 OPEN
+ * 6. 결과가 오지 않는 시험 호출: 허가 반납, halfOpenTimeout 후 OPEN, 이전 상태의 늦은 결과 무시
+ * 7. 지연이 타임아웃 위로 옮겨가서 유지: 타임아웃이 따라 올라가고 CLOSED로 복구
+ * 마지막으로 실제 시간으로 CircuitBreakerGateway의 빠른 실패를 확인
+ *
+ * 실행: javac *.java && java CircuitBreakerHarness
+ */
+public class CircuitBreakerHarness {
+
+    private static final AtomicLong now = new AtomicLong();  // 가짜 시계 (ns)
+    private static int checks;
+
+    public static void main(String[] args) throws Exception {
+        PaymentStrategy card = new CardPayment("1234-5678-9012-3456");
+        FaultyPaymentGateway gateway = new FaultyPaymentGateway(now::addAndGet, 42);
+        CircuitBreaker breaker = new CircuitBreaker(card.getName(), config(), now::get);
+
+        // 1. 정상
+        System.out.println("=== 1. 정상 (지연 20ms) ===");
+        gateway.inject(20, 0);
+        int[] outcome = run(breaker, gateway, card, 50);
+        check(outcome[0] == 50, "50건 모두 성공");
+        check(breaker.timeoutNanos() == 40_000_000, "타임아웃 = p99(20ms) x 2 = 40ms");
+        gateway.inject(30, 0);
+        run(breaker, gateway, card, 200);
+        check(breaker.timeoutNanos() == 60_000_000, "지연이 30ms로 바뀌면 타임아웃도 60ms로 따라감");
+        System.out.println(breaker);
+
+        // 2. 지연 급증
+        System.out.println("\n=== 2. 지연 급증 (300ms) ===");
+        gateway.inject(300, 0);
+        int calls = 0;
+        while (breaker.getState() == CircuitBreaker.State.CLOSED) {
+            run(breaker, gateway, card, 1);
+            calls++;
+        }
+        check(calls == 10, "최근 20건 중 타임아웃 10건(50%)에서 OPEN (" + calls + "건)");
+        System.out.println(breaker);
+
+        // 3. OPEN
+        System.out.println("\n=== 3. OPEN ===");
+        long gatewayCalls = gateway.getCallCount();
+        long clock = now.get();
+        outcome = run(breaker, gateway, card, 100);
+        check(outcome[2] == 100, "100건 모두 바로 실패 (CallNotPermittedException)");
+        check(gateway.getCallCount() == gatewayCalls, "게이트웨이 호출 없음");
+        check(now.get() == clock, "기다린 시간 0");
+
+        // 4. 복구
+        System.out.println("\n=== 4. 1초 경과 후 복구 ===");
+        now.addAndGet(1_000_000_000L);
+        gateway.inject(20, 0);
+        CircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        check(permit != null && breaker.getState() == CircuitBreaker.State.HALF_OPEN,
+            "openDuration이 지나면 HALF_OPEN");
+        breaker.onSuccess(permit, 20_000_000);  // 위에서 받은 허가 1개 사용
+        outcome = run(breaker, gateway, card, 2);
+        check(outcome[0] == 2, "남은 시험 호출 2건 성공");
+        check(breaker.getState() == CircuitBreaker.State.CLOSED, "시험 호출 3건 모두 성공하면 CLOSED");
+        System.out.println(breaker);
+
+        // 5. 오류율 상승
+        System.out.println("\n=== 5. 오류율 70% ===");
+        gateway.inject(20, 0.7);
+        calls = 0;
+        while (breaker.getState() == CircuitBreaker.State.CLOSED) {
+            run(breaker, gateway, card, 1);
+            calls++;
+        }
+        check(calls >= 10, "최소 호출 수(10) 이후에 OPEN (" + calls + "건)");
+        now.addAndGet(1_000_000_000L);
+        gateway.inject(20, 1.0);
+        run(breaker, gateway, card, 1);
+        check(breaker.getState() == CircuitBreaker.State.OPEN, "시험 호출이 실패하면 다시 OPEN");
+        System.out.println(breaker);
+
+        // 6. 결과가 오지 않는 시험 호출 (호출자 중단, 스레드 유실 등)
+        System.out.println("\n=== 6. 결과가 오지 않는 시험 호출 ===");
+        now.addAndGet(1_000_000_000L);
+        CircuitBreaker.Permit[] trials = new CircuitBreaker.Permit[3];
+        for (int i = 0; i < trials.length; i++) {
+            trials[i] = breaker.tryAcquirePermission();
+        }
+        check(trials[2] != null && breaker.tryAcquirePermission() == null, "시험 호출 허가 3개를 모두 받으면 더 이상 허가 없음");
+        breaker.release(trials[0]);
+        check(breaker.tryAcquirePermission() != null, "결과 없이 반납한 허가는 다시 받을 수 있음");
+        now.addAndGet(500_000_000L);
+        check(breaker.tryAcquirePermission() == null && breaker.getState() == CircuitBreaker.State.OPEN,
+            "halfOpenTimeout(500ms) 안에 결과가 오지 않으면 다시 OPEN");
+        now.addAndGet(1_000_000_000L);
+        CircuitBreaker.Permit fresh = breaker.tryAcquirePermission();
+        breaker.onError(trials[1], 20_000_000);  // 이전 HALF_OPEN에서 받은 허가의 늦은 결과
+        check(fresh != null && breaker.getState() == CircuitBreaker.State.HALF_OPEN,
+            "이전 HALF_OPEN 허가의 늦은 실패는 새 HALF_OPEN에 영향 없음");
+        gateway.inject(20, 0);
+        breaker.onSuccess(fresh, 20_000_000);
+        run(breaker, gateway, card, 2);
+        check(breaker.getState() == CircuitBreaker.State.CLOSED, "새 시험 호출 3건 성공으로 CLOSED");
+        breaker.onError(trials[2], 20_000_000);
+        check(breaker.failureRate() == 0, "이전 상태의 결과는 새 CLOSED 윈도우에도 반영되지 않음");
+        System.out.println(breaker);
+
+        // 7. 지연이 타임아웃 위로 옮겨감 (급증이 아니라 새 정상값)
+        System.out.println("\n=== 7. 지연 20ms → 50ms로 유지 ===");
+        CircuitBreaker shifted = new CircuitBreaker(card.getName(), config(), now::get);
+        gateway.inject(20, 0);
+        run(shifted, gateway, card, 50);
+        check(shifted.timeoutNanos() == 40_000_000, "20ms에서 타임아웃 40ms");
+        gateway.inject(50, 0);
+        int periods = 0;
+        outcome = new int[3];
+        while (periods < 20 && outcome[0] < 50) {  // 한 주기 = openDuration(1초) + 50건
+            now.addAndGet(1_000_000_000L);
+            outcome = run(shifted, gateway, card, 50);
+            periods++;
+            System.out.printf("주기 %2d: 성공 %2d, 실패 %2d, 빠른 실패 %2d, %s%n",
+                periods, outcome[0], outcome[1], outcome[2], shifted);
+        }
+        check(outcome[0] == 50 && shifted.getState() == CircuitBreaker.State.CLOSED,
+            "타임아웃이 50ms 위로 따라 올라가서 CLOSED로 복구 (" + periods + "주기)");
+        check(shifted.timeoutNanos() >= 100_000_000, "타임아웃 >= p99(50ms) x 2");
+        System.out.println("\n검사 " + checks + "개 통과");
+
+        // === 실제 시간: 호출자가 기다리는 시간 ===
+        System.out.println("\n=== 실제 시간: 게이트웨이 지연 10ms → 1초 ===");
+        FaultyPaymentGateway slow = new FaultyPaymentGateway(FaultyPaymentGateway.REAL_TIME, 7);
+        try (CircuitBreakerGateway guarded = new CircuitBreakerGateway(slow, new CircuitBreaker.Config()
+                .window(20, 10).thresholds(0.5, 0.5, 100).open(5000, 3).timeout(99, 2.0, 10, 2000))) {
+            slow.inject(10, 0);
+            measure(guarded, card, 30, "정상");
+            slow.inject(1000, 0);
+            measure(guarded, card, 10, "지연 급증");
+            measure(guarded, card, 30, "OPEN 이후");
+            System.out.println(guarded.breaker(card.getName()));
+        }
+    }
+
+    private static CircuitBreaker.Config config() {
+        return new CircuitBreaker.Config()
+            .window(20, 10)
+            .thresholds(0.5, 0.5, 150)
+            .open(1000, 3)
+            .halfOpenTimeout(500)
+            .timeout(99, 2.0, 10, 2000);
+    }
+
+    // {성공, 실패(오류/타임아웃), 빠른 실패}
+    private static int[] run(CircuitBreaker breaker, PaymentGateway gateway, PaymentStrategy payment, int count) {
+        int[] outcome = new int[3];
+        for (int i = 0; i < count; i++) {
+            PaymentRequest request = new PaymentRequest("order-" + i, payment, 10_000);
+            try {
+                breaker.call(() -> gateway.process(payment.getName(), List.of(request)));
+                outcome[0]++;
+            } catch (CircuitBreaker.CallNotPermittedException e) {
+                outcome[2]++;
+            } catch (Exception e) {
+                outcome[1]++;
+            }
+        }
+        return outcome;
+    }
+
+    private static void measure(PaymentGateway gateway, PaymentStrategy payment, int count, String label) {
+        int timeouts = 0;
+        int rejected = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            try {
+                gateway.process(payment.getName(), List.of(new PaymentRequest("order-" + i, payment, 10_000)));
+            } catch (CircuitBreaker.CallNotPermittedException e) {
+                rejected++;
+            } catch (TimeoutException e) {
+                timeouts++;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        System.out.printf("%-8s %d건: 평균 대기 %6.1fms, 타임아웃 %d, 빠른 실패 %d%n", label, count,
+            (System.nanoTime() - start) / 1e6 / count, timeouts, rejected);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            throw new AssertionError("실패: " + description);
+        }
+        checks++;
+        System.out.println("통과: " + description);
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chapter 07 - 장애를 주입할 수 있는 스텁 게이트웨이
+ *
+ * 실행 중에 지연 시간과 오류율을 바꿔서 게이트웨이 장애를 흉내 냄
+ * - 오류 여부는 seed를 고정한 Random으로 결정 → 같은 seed면 항상 같은 순서
+ * - 지연은 Sleeper로 처리 → 테스트에서는 실제로 자지 않고 가짜 시계만 앞으로 돌림
+ */
+public class FaultyPaymentGateway implements PaymentGateway {
+
+    public interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    public static final Sleeper REAL_TIME = nanos -> Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+
+    private final Sleeper sleeper;
+    private final Random random;
+    private final AtomicLong calls = new AtomicLong();
+    private volatile long latencyNanos;
+    private volatile double failureRate;
+
+    public FaultyPaymentGateway(Sleeper sleeper, long seed) {
+        this.sleeper = sleeper;
+        this.random = new Random(seed);
+    }
+
+    // 이후 호출부터 적용
+    public void inject(long latencyMillis, double failureRate) {
+        this.latencyNanos = latencyMillis * 1_000_000;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public List<PaymentResult> process(String method, List<PaymentRequest> batch) throws InterruptedException {
+        calls.incrementAndGet();
+        boolean fail;
+        synchronized (random) {
+            fail = random.nextDouble() < failureRate;
+        }
+        sleeper.sleep(latencyNanos);
+        if (fail) {
+            throw new IllegalStateException(method + " 게이트웨이 오류");
+        }
+        List<PaymentResult> results = new ArrayList<>(batch.size());
+        for (PaymentRequest request : batch) {
+            results.add(PaymentResult.approved(request, "A" + request.getOrderId()));
+        }
+        return results;
+    }
+
+    // 실제로 게이트웨이까지 도달한 호출 수
+    public long getCallCount() {
+        return calls.get();
+    }
+}
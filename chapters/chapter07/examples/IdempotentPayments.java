@@ -0,0 +1,303 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Chapter 07 - 주문 번호 기반 중복 결제 방지 (멱등성)
+ *
+ * 타임아웃 뒤 재시도하면 같은 주문이 두 번 결제될 수 있음
+ * IdempotentPayments는 실제 결제 앞에서 주문 번호로 중복을 걸러냄
+ * - 처리 중 맵: 같은 주문이 동시에 들어오면 첫 요청의 future를 함께 기다림
+ * - 결과 캐시: 끝난 결과(승인/거절)를 ttl 동안 보관했다가 재시도에 그대로 돌려줌
+ *   ttl이 모두 같으므로 저장 순서 = 만료 순서
+ *   → 큐 앞에서부터 만료됐거나 최대 개수를 넘은 항목만 꺼내면 됨 (한 스레드만 정리, 항목당 poll 1번)
+ * - maxResults는 (초당 주문 수 × ttl초) 이상으로 잡아야 함
+ *   더 작으면 ttl 전에 밀려난 주문의 재시도가 다시 결제됨 → getEvictedBeforeExpiry()가 0보다 크면 늘릴 것
+ * - 예외로 끝난 결제는 저장하지 않음 (다시 시도 가능)
+ * - 같은 주문 번호에 금액이 다르면 IllegalStateException
+ *
+ * 실행: javac *.java && java IdempotentPayments
+ */
+public class IdempotentPayments {
+
+    private final Function<PaymentRequest, CompletableFuture<PaymentResult>> delegate;
+    private final int maxResults;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Stored> results = new ConcurrentHashMap<>();
+    private final Queue<Stored> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger storedCount = new AtomicInteger();
+    private final ReentrantLock purgeLock = new ReentrantLock();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder evictedBeforeExpiry = new LongAdder();
+
+    private static final class InFlight {
+        final PaymentRequest request;
+        final CompletableFuture<PaymentResult> future = new CompletableFuture<>();
+
+        InFlight(PaymentRequest request) {
+            this.request = request;
+        }
+    }
+
+    private static final class Stored {
+        final String orderId;
+        final PaymentResult result;
+        final long expiresAt;
+
+        Stored(String orderId, PaymentResult result, long expiresAt) {
+            this.orderId = orderId;
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // delegate: 실제 결제 (예: pipeline::submit)
+    public IdempotentPayments(Function<PaymentRequest, CompletableFuture<PaymentResult>> delegate,
+                              int maxResults, long ttl, TimeUnit unit) {
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("maxResults는 1 이상이어야 합니다: " + maxResults);
+        }
+        this.delegate = delegate;
+        this.maxResults = maxResults;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    public CompletableFuture<PaymentResult> submit(String orderId, PaymentStrategy payment, int amount) {
+        return submit(new PaymentRequest(orderId, payment, amount));
+    }
+
+    public CompletableFuture<PaymentResult> submit(PaymentRequest request) {
+        String orderId = request.getOrderId();
+
+        // 1. 이미 끝난 주문이면 저장된 결과 재사용
+        PaymentResult done = lookup(orderId);
+        if (done != null) {
+            replayed.increment();
+            return replay(done.getRequest(), request, CompletableFuture.completedFuture(done));
+        }
+
+        // 2. 처리 중인 주문이면 같은 future 공유
+        InFlight mine = new InFlight(request);
+        InFlight running = inFlight.putIfAbsent(orderId, mine);
+        if (running != null) {
+            collapsed.increment();
+            return replay(running.request, request, running.future);
+        }
+
+        // 3. 1과 2 사이에 다른 스레드가 끝냈을 수 있음
+        done = lookup(orderId);
+        if (done != null) {
+            inFlight.remove(orderId, mine);
+            mine.future.complete(done);
+            replayed.increment();
+            return replay(done.getRequest(), request, mine.future);
+        }
+
+        executed.increment();
+        CompletableFuture<PaymentResult> charged;
+        try {
+            charged = delegate.apply(request);
+        } catch (RuntimeException e) {
+            charged = CompletableFuture.failedFuture(e);
+        }
+        charged.whenComplete((result, error) -> {
+            if (error == null) {
+                store(orderId, result);  // 처리 중 맵에서 빼기 전에 저장 → 뒤따르는 요청이 놓치지 않음
+            }
+            inFlight.remove(orderId, mine);
+            if (error == null) {
+                mine.future.complete(result);
+            } else {
+                mine.future.completeExceptionally(error);
+            }
+        });
+        return mine.future;
+    }
+
+    // 같은 주문 번호인데 금액이 다르면 잘못된 재시도
+    private static CompletableFuture<PaymentResult> replay(PaymentRequest original, PaymentRequest retry,
+                                                           CompletableFuture<PaymentResult> future) {
+        if (original.getAmount() != retry.getAmount()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                "같은 주문 번호로 다른 금액이 요청되었습니다: " + retry.getOrderId()
+                    + " (" + original.getAmount() + "원 → " + retry.getAmount() + "원)"));
+        }
+        return future;
+    }
+
+    private PaymentResult lookup(String orderId) {
+        Stored stored = results.get(orderId);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.expiresAt - System.nanoTime() <= 0) {
+            purge();
+            return null;
+        }
+        return stored.result;
+    }
+
+    private void store(String orderId, PaymentResult result) {
+        Stored stored = new Stored(orderId, result, System.nanoTime() + ttlNanos);
+        Stored previous = results.put(orderId, stored);
+        if (previous == null) {
+            storedCount.incrementAndGet();
+        }
+        expiryQueue.add(stored);
+        purge();
+    }
+
+    // 큐 앞에서부터 만료됐거나 개수를 넘은 항목 제거
+    // 다른 스레드가 정리 중이면 맡기고 바로 반환 (그 사이 개수가 잠깐 maxResults를 넘을 수 있음)
+    private void purge() {
+        if (!purgeLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            Stored head;
+            while ((head = expiryQueue.peek()) != null
+                    && (head.expiresAt - now <= 0 || storedCount.get() > maxResults)) {
+                expiryQueue.poll();  // 정리하는 스레드는 하나뿐이므로 peek한 항목이 그대로 나옴
+                // 같은 주문이 다시 저장됐으면 맵에는 새 항목이 있으므로 지우지 않음
+                if (results.remove(head.orderId, head)) {
+                    storedCount.decrementAndGet();
+                    if (head.expiresAt - now > 0) {
+                        evictedBeforeExpiry.increment();
+                    }
+                }
+            }
+        } finally {
+            purgeLock.unlock();
+        }
+    }
+
+    // === 상태 ===
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    public long getReplayed() {
+        return replayed.sum();
+    }
+
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    public int cachedResults() {
+        return storedCount.get();
+    }
+
+    // 개수 제한 때문에 ttl 전에 지운 결과 수 (이 주문들의 재시도는 다시 결제됨)
+    public long getEvictedBeforeExpiry() {
+        return evictedBeforeExpiry.sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        PaymentStrategy card = new CardPayment("1234-5678-9012-3456");
+        PaymentStrategy bank = new BankTransfer("국민은행", "123-456-789");
+        PaymentStrategy kakao = new KakaoPay("010-1234-5678");
+
+        // === 재시도 ===
+        System.out.println("=== 같은 주문 재시도 ===");
+        try (PaymentPipeline pipeline = new PaymentPipeline(
+                new StubPaymentGateway(50, 0, 1_000_000), 100, 10, 5, 4)) {
+            IdempotentPayments payments = new IdempotentPayments(pipeline::submit, 10_000, 10, TimeUnit.MINUTES);
+            CompletableFuture<PaymentResult> first = payments.submit("order-1", card, 50000);
+            CompletableFuture<PaymentResult> retry = payments.submit("order-1", card, 50000);  // 처리 중 재시도
+            System.out.println("처리 중 재시도: " + retry.join() + " (같은 결과: " + (first.join() == retry.join()) + ")");
+            System.out.println("완료 후 재시도: " + payments.submit("order-1", card, 50000).join());
+            payments.submit("order-1", card, 70000).whenComplete((result, error) ->
+                System.out.println("금액이 다른 재시도: " + error.getMessage()));
+            System.out.println("실제 결제 " + payments.getExecuted() + "번, 처리 중 합침 " + payments.getCollapsed()
+                + "번, 저장 결과 재사용 " + payments.getReplayed() + "번");
+        }
+
+        // === 재시도 폭주 ===
+        int orders = 20_000;
+        int retries = 10;
+        int threads = 8;
+        PaymentStrategy[] methods = {card, bank, kakao};
+        System.out.println("\n=== 주문 " + orders + "건 x 요청 " + retries + "번, " + threads + " 스레드 ===");
+        for (boolean idempotent : new boolean[]{false, true}) {
+            StubPaymentGateway gateway = new StubPaymentGateway(5, 10, 1_000_000);
+            PaymentPipeline pipeline = new PaymentPipeline(gateway, 10_000, 64, 2, 16);
+            IdempotentPayments payments = new IdempotentPayments(pipeline::submit, 100_000, 10, TimeUnit.MINUTES);
+            Function<PaymentRequest, CompletableFuture<PaymentResult>> entry =
+                idempotent ? payments::submit : pipeline::submit;
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch done = new CountDownLatch(threads);
+            List<CompletableFuture<PaymentResult>> futures = Collections.synchronizedList(new ArrayList<>());
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    // 스레드마다 같은 주문들을 몰아서 재시도
+                    for (int i = offset; i < orders * retries; i += threads) {
+                        int order = i / retries;
+                        futures.add(entry.apply(new PaymentRequest("order-" + order, methods[order % 3], 1000 + order)));
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+            pipeline.close();
+            System.out.printf("%-8s 요청 %d건, 실제 결제 %d건, %dms%n", idempotent ? "멱등 처리" : "그대로",
+                futures.size(), gateway.getRequestCount(), elapsed / 1_000_000);
+            if (idempotent) {
+                System.out.println("  처리 중 합침 " + payments.getCollapsed() + "건, 저장 결과 재사용 "
+                    + payments.getReplayed() + "건, 저장 결과 " + payments.cachedResults() + "개, ttl 전 제거 "
+                    + payments.getEvictedBeforeExpiry() + "개");
+            }
+        }
+
+        // === 조회 처리량 (저장된 결과 재사용) ===
+        IdempotentPayments cached = new IdempotentPayments(
+            request -> CompletableFuture.completedFuture(PaymentResult.approved(request, "A")),
+            100_000, 10, TimeUnit.MINUTES);
+        PaymentRequest[] requests = new PaymentRequest[100_000];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new PaymentRequest("order-" + i, methods[i % 3], 1000);
+            cached.submit(requests[i]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int lookups = 2_000_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.execute(() -> {
+                for (int i = offset; i < lookups; i += threads) {
+                    cached.submit(requests[(i * 31) % requests.length]);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        System.out.printf("%n재시도 조회 %d건: %.0f 건/초%n", lookups, lookups / (elapsed / 1e9));
+    }
+}
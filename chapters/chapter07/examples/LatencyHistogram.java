@@ -0,0 +1,66 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Chapter 07 - 지연 시간 히스토그램 (마이크로초 단위)
+ *
+ * 2의 거듭제곱 구간을 다시 8칸으로 나눈 버킷에 개수만 기록
+ * - 기록: 버킷 계산 + AtomicLongArray 증가 (락 없음, 할당 없음)
+ * - 백분위수 오차는 구간 폭의 1/8 이내
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+    private static final int LINEAR = 16;  // 16us 미만은 1us 단위
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + (64 - 4) * SUB_BUCKETS);
+
+    public void record(long micros) {
+        counts.incrementAndGet(bucket(Math.max(0, micros)));
+    }
+
+    public void recordSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    // p(0~100) 백분위수의 상한 (기록이 없으면 0)
+    public long percentile(double p) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * p / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(counts.length() - 1);
+    }
+
+    private static int bucket(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);  // 4 이상
+        int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 3)) - 1;
+    }
+}
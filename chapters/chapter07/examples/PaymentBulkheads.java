@@ -0,0 +1,273 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Chapter 07 - 결제 방식별 벌크헤드 + 속도 제한
+ *
+ * 모든 결제가 같은 스레드(풀)를 쓰면 느린 계좌이체 하나가 카드/카카오페이까지 막음
+ * PaymentBulkheads는 결제 방식마다 따로
+ * - 고정 크기 스레드 풀 + 크기 제한 대기열 (가득 차면 거절) → 서로 영향 없음
+ * - 토큰 버킷 속도 제한: REJECT면 토큰이 없을 때 바로 거절
+ *                        QUEUE면 maxWait 안에 토큰이 생기도록 예약하고 그 시각에 대기열로 넣음
+ *                        (기다리는 동안 작업 스레드를 잡고 있지 않음)
+ *   대기열이 가득 차서 거절되면 예약한 토큰은 돌려줌 (실행되지 않은 요청이 속도 한도를 쓰지 않도록)
+ * - 지표: 대기열 길이(토큰 대기 포함, 현재/최대), 거절 수(속도 제한/대기열), 지연 시간 백분위수
+ *
+ * submit은 pipeline::submit과 같은 모양이라 IdempotentPayments 뒤에 붙일 수 있음
+ *
+ * 실행: javac *.java && java PaymentBulkheads
+ */
+public class PaymentBulkheads implements AutoCloseable {
+
+    public enum OverflowPolicy { QUEUE, REJECT }
+
+    private final Map<String, Provider> providers = new LinkedHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "rate-limit-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Provider {
+        final String method;
+        final PaymentGateway gateway;
+        final ThreadPoolExecutor executor;
+        final TokenBucket limiter;
+        final OverflowPolicy policy;
+        final long maxWaitNanos;
+        final ProviderMetrics metrics = new ProviderMetrics();
+
+        Provider(String method, PaymentGateway gateway, int threads, int queueCapacity,
+                 TokenBucket limiter, OverflowPolicy policy, long maxWaitNanos) {
+            this.method = method;
+            this.gateway = gateway;
+            AtomicInteger sequence = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, method + "-" + sequence.incrementAndGet()));
+            this.limiter = limiter;
+            this.policy = policy;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+    }
+
+    // 결제 방식별 지표
+    public static final class ProviderMetrics {
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder bulkheadFull = new LongAdder();
+        private final AtomicInteger waitingForToken = new AtomicInteger();
+        private final AtomicInteger peakQueueDepth = new AtomicInteger();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile ThreadPoolExecutor executor;
+
+        public long getSubmitted() { return submitted.sum(); }
+        public long getCompleted() { return completed.sum(); }
+        public long getFailed() { return failed.sum(); }
+        public long getRateLimited() { return rateLimited.sum(); }
+        public long getBulkheadFull() { return bulkheadFull.sum(); }
+        public int getQueueDepth() { return executor.getQueue().size() + waitingForToken.get(); }
+        public int getPeakQueueDepth() { return peakQueueDepth.get(); }
+        public LatencyHistogram getLatency() { return latency; }
+
+        @Override
+        public String toString() {
+            return String.format("요청 %d, 완료 %d, 실패 %d, 거절(속도 %d, 대기열 %d), 대기열 %d/최대 %d, "
+                    + "지연 p50 %.1fms p99 %.1fms",
+                getSubmitted(), getCompleted(), getFailed(), getRateLimited(), getBulkheadFull(),
+                getQueueDepth(), getPeakQueueDepth(),
+                latency.percentile(50) / 1000.0, latency.percentile(99) / 1000.0);
+        }
+    }
+
+    // 결제 방식(PaymentStrategy.getName())별 설정 등록 (submit 전에 등록)
+    public PaymentBulkheads register(String method, PaymentGateway gateway, int threads, int queueCapacity,
+                                     double permitsPerSecond, int burst,
+                                     OverflowPolicy policy, long maxWaitMillis) {
+        Provider provider = new Provider(method, gateway, threads, queueCapacity,
+            new TokenBucket(permitsPerSecond, burst), policy, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        provider.metrics.executor = provider.executor;
+        providers.put(method, provider);
+        return this;
+    }
+
+    public CompletableFuture<PaymentResult> submit(String orderId, PaymentStrategy payment, int amount) {
+        return submit(new PaymentRequest(orderId, payment, amount));
+    }
+
+    public CompletableFuture<PaymentResult> submit(PaymentRequest request) {
+        Provider provider = providers.get(request.getPayment().getName());
+        if (provider == null) {
+            throw new IllegalArgumentException("등록되지 않은 결제 방식입니다: " + request.getPayment().getName());
+        }
+        ProviderMetrics metrics = provider.metrics;
+        metrics.submitted.increment();
+        long start = System.nanoTime();
+
+        // 토큰 예약 (QUEUE면 기다릴 시간까지 예약)
+        long waitNanos = provider.limiter.reserve(provider.policy == OverflowPolicy.QUEUE ? provider.maxWaitNanos : 0);
+        if (waitNanos < 0) {
+            metrics.rateLimited.increment();
+            return CompletableFuture.failedFuture(
+                new RejectedExecutionException(provider.method + " 속도 제한 초과"));
+        }
+
+        CompletableFuture<PaymentResult> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                PaymentResult result = provider.gateway.process(provider.method, List.of(request)).get(0);
+                metrics.completed.increment();
+                future.complete(result);
+            } catch (Throwable e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                metrics.failed.increment();
+                future.completeExceptionally(e);  // Error도 future에 전달 (안 하면 호출한 쪽이 영원히 기다림)
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+            } finally {
+                metrics.latency.recordSince(start);
+            }
+        };
+        if (waitNanos == 0) {
+            enqueue(provider, task, future);
+        } else {
+            metrics.waitingForToken.incrementAndGet();
+            timer.schedule(() -> {
+                metrics.waitingForToken.decrementAndGet();
+                enqueue(provider, task, future);
+            }, waitNanos, TimeUnit.NANOSECONDS);
+        }
+        metrics.peakQueueDepth.accumulateAndGet(metrics.getQueueDepth(), Math::max);
+        return future;
+    }
+
+    private static void enqueue(Provider provider, Runnable task, CompletableFuture<PaymentResult> future) {
+        try {
+            provider.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            provider.limiter.refund();
+            provider.metrics.bulkheadFull.increment();
+            future.completeExceptionally(new RejectedExecutionException(provider.method + " 대기열이 가득 찼습니다"));
+        }
+    }
+
+    public ProviderMetrics metrics(String method) {
+        return providers.get(method).metrics;
+    }
+
+    public Map<String, ProviderMetrics> allMetrics() {
+        Map<String, ProviderMetrics> result = new LinkedHashMap<>();
+        providers.forEach((method, provider) -> result.put(method, provider.metrics));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdown();  // 예약된 작업은 실행한 뒤 종료
+        try {
+            timer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Provider provider : providers.values()) {
+            provider.executor.shutdown();
+        }
+        try {
+            for (Provider provider : providers.values()) {
+                provider.executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        PaymentStrategy card = new CardPayment("1234-5678-9012-3456");
+        PaymentStrategy bank = new BankTransfer("국민은행", "123-456-789");
+        PaymentStrategy kakao = new KakaoPay("010-1234-5678");
+        PaymentStrategy[] methods = {card, bank, kakao};
+        // 계좌이체 게이트웨이만 느림 (200ms), 나머지는 5ms
+        Map<String, PaymentGateway> gateways = Map.of(
+            card.getName(), new StubPaymentGateway(5, 0, 1_000_000),
+            bank.getName(), new StubPaymentGateway(200, 0, 1_000_000),
+            kakao.getName(), new StubPaymentGateway(5, 0, 1_000_000));
+        int seconds = 2;
+        int perSecond = 300;  // 결제 방식별 초당 요청 수
+
+        // === 공유 스레드 풀 (격리 없음) ===
+        System.out.println("=== 공유 스레드 풀 16개, 결제 방식별 초당 " + perSecond + "건 x " + seconds + "초 ===");
+        ExecutorService shared = Executors.newFixedThreadPool(16);
+        Map<String, LatencyHistogram> sharedLatency = new LinkedHashMap<>();
+        for (PaymentStrategy method : methods) {
+            sharedLatency.put(method.getName(), new LatencyHistogram());
+        }
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        generateLoad(methods, perSecond, seconds, request -> {
+            long start = System.nanoTime();
+            String method = request.getPayment().getName();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    gateways.get(method).process(method, List.of(request));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                sharedLatency.get(method).recordSince(start);
+            }, shared));
+        });
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        shared.shutdown();
+        sharedLatency.forEach((method, latency) -> System.out.printf("%-6s 지연 p50 %7.1fms p99 %7.1fms%n",
+            method, latency.percentile(50) / 1000.0, latency.percentile(99) / 1000.0));
+
+        // === 결제 방식별 벌크헤드 + 속도 제한 ===
+        System.out.println("\n=== 결제 방식별 벌크헤드 ===");
+        try (PaymentBulkheads bulkheads = new PaymentBulkheads()
+                .register(card.getName(), gateways.get(card.getName()), 4, 100, 1000, 50, OverflowPolicy.REJECT, 0)
+                .register(bank.getName(), gateways.get(bank.getName()), 8, 50, 100, 10, OverflowPolicy.REJECT, 0)
+                .register(kakao.getName(), gateways.get(kakao.getName()), 4, 100, 200, 20, OverflowPolicy.QUEUE, 100)) {
+            futures.clear();
+            generateLoad(methods, perSecond, seconds, request -> futures.add(bulkheads.submit(request)));
+            CompletableFuture.allOf(futures.stream()
+                .map(future -> future.handle((result, error) -> null))
+                .toArray(CompletableFuture<?>[]::new)).join();
+            bulkheads.allMetrics().forEach((method, metrics) ->
+                System.out.printf("%-6s %s%n", method, metrics));
+        }
+    }
+
+    // 1ms마다 결제 방식별로 perSecond/1000건씩 요청 생성
+    private static void generateLoad(PaymentStrategy[] methods, int perSecond, int seconds,
+                                     Consumer<PaymentRequest> sink) throws InterruptedException {
+        long start = System.nanoTime();
+        int order = 0;
+        long sent = 0;
+        long total = (long) perSecond * seconds;
+        while (sent < total) {
+            long due = Math.min(total, (System.nanoTime() - start) * perSecond / 1_000_000_000L);
+            for (; sent < due; sent++) {
+                for (PaymentStrategy method : methods) {
+                    sink.accept(new PaymentRequest("order-" + order++, method, 10_000));
+                }
+            }
+            Thread.sleep(1);
+        }
+    }
+}
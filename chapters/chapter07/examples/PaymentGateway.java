@@ -0,0 +1,11 @@
+import java.util.List;
+
+/**
+ * Chapter 07 - 결제 게이트웨이
+ *
+ * 같은 결제 방식의 요청을 묶어서 한 번의 왕복으로 처리
+ * 결과는 요청과 같은 순서로 반환
+ */
+public interface PaymentGateway {
+    List<PaymentResult> process(String method, List<PaymentRequest> batch) throws Exception;
+}
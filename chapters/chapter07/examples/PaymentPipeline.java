@@ -0,0 +1,351 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Chapter 07 - 비동기 배치 결제 파이프라인
+ *
+ * OrderProcessor.processPayment는 주문 하나씩 게이트웨이 왕복을 기다림
+ * → 처리량 = 1 / 왕복 시간
+ *
+ * PaymentPipeline
+ * - submit은 크기 제한 큐에 넣고 바로 CompletableFuture 반환 (큐가 차면 대기)
+ * - 배치 스레드가 결제 방식(신용카드/계좌이체/카카오페이)별로 요청을 모음
+ *   maxBatchSize가 차거나 첫 요청 후 maxBatchDelay가 지나면 게이트웨이로 보냄
+ * - 게이트웨이 호출은 최대 gatewayConcurrency개까지 동시에 실행
+ *   (자리가 없으면 배치 스레드가 기다림 → 큐가 차면서 submit도 기다림)
+ * - 결과가 나오면 요청별 future 완료 + 등록한 콜백 호출
+ *
+ * 실행: javac *.java && java PaymentPipeline
+ */
+public class PaymentPipeline implements AutoCloseable {
+
+    private static final Pending SHUTDOWN = new Pending(null);
+
+    private final PaymentGateway gateway;
+    private final BlockingQueue<Pending> intake;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final ExecutorService dispatchers;
+    private final Semaphore dispatchPermits;
+    private final Thread batcher;
+    private final List<BiConsumer<? super PaymentResult, ? super Throwable>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile boolean closed;
+
+    private static final class Pending {
+        final PaymentRequest request;
+        final CompletableFuture<PaymentResult> future = new CompletableFuture<>();
+
+        Pending(PaymentRequest request) {
+            this.request = request;
+        }
+    }
+
+    public PaymentPipeline(PaymentGateway gateway, int queueCapacity, int maxBatchSize,
+                           long maxBatchDelayMillis, int gatewayConcurrency) {
+        if (maxBatchSize <= 0 || gatewayConcurrency <= 0) {
+            throw new IllegalArgumentException("배치 크기와 동시 호출 수는 1 이상이어야 합니다");
+        }
+        this.gateway = gateway;
+        this.intake = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+        this.dispatchers = Executors.newFixedThreadPool(gatewayConcurrency);
+        this.dispatchPermits = new Semaphore(gatewayConcurrency);
+        this.batcher = new Thread(this::runBatcher, "payment-batcher");
+        this.batcher.start();
+    }
+
+    // 결제가 끝날 때마다 호출될 콜백 등록 (submit 전에 등록)
+    public PaymentPipeline onComplete(BiConsumer<? super PaymentResult, ? super Throwable> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public CompletableFuture<PaymentResult> submit(String orderId, PaymentStrategy payment, int amount) {
+        return submit(new PaymentRequest(orderId, payment, amount));
+    }
+
+    public CompletableFuture<PaymentResult> submit(PaymentRequest request) {
+        validate(request);  // 잘못된 요청은 배치 스레드까지 가기 전에 호출한 쪽에서 거절
+        if (closed) {
+            throw new IllegalStateException("파이프라인이 닫혔습니다");
+        }
+        Pending pending = new Pending(request);
+        pending.future.whenComplete(this::notifyListeners);
+        try {
+            // 큐가 가득 차면 자리가 날 때까지 대기 (그 사이 닫히면 실패)
+            while (!intake.offer(pending, 10, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    pending.future.completeExceptionally(new IllegalStateException("파이프라인이 닫혔습니다"));
+                    return pending.future;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+            return pending.future;
+        }
+        // 닫히는 중에 들어가서 배치 스레드가 가져가지 못한 요청
+        if (closed && intake.remove(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("파이프라인이 닫혔습니다"));
+            return pending.future;
+        }
+        submitted.incrementAndGet();  // 배치 스레드에 넘어간 요청만 (평균 배치 크기 계산용)
+        return pending.future;
+    }
+
+    private static void validate(PaymentRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("결제 요청이 null입니다");
+        }
+        if (request.getOrderId() == null || request.getOrderId().isEmpty()) {
+            throw new IllegalArgumentException("주문 번호가 없습니다");
+        }
+        if (request.getPayment() == null || request.getPayment().getName() == null) {
+            throw new IllegalArgumentException("결제 수단이 없습니다: " + request.getOrderId());
+        }
+        if (request.getAmount() <= 0) {
+            throw new IllegalArgumentException("결제 금액은 1 이상이어야 합니다: " + request.getAmount());
+        }
+    }
+
+    private void notifyListeners(PaymentResult result, Throwable error) {
+        for (BiConsumer<? super PaymentResult, ? super Throwable> listener : listeners) {
+            listener.accept(result, error);
+        }
+    }
+
+    // === 배치 스레드 ===
+
+    private void runBatcher() {
+        Map<String, List<Pending>> buffers = new HashMap<>();
+        Map<String, Long> deadlines = new HashMap<>();
+        boolean shuttingDown = false;
+        while (!shuttingDown) {
+            Pending pending;
+            try {
+                if (deadlines.isEmpty()) {
+                    pending = intake.take();
+                } else {
+                    long wait = deadlines.values().stream().mapToLong(Long::longValue).min().getAsLong()
+                        - System.nanoTime();
+                    pending = intake.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                // 닫힌 것과 같게 처리 - 새 요청도 받지 않아야 submit이 배치 스레드 없는 큐에 넣고 기다리지 않음
+                closed = true;
+                pending = SHUTDOWN;
+            }
+
+            // 예상하지 못한 오류가 나도 배치 스레드는 살려 두고, 모아 둔 요청은 실패로 완료
+            // (스레드가 죽으면 이후 요청의 future가 영원히 완료되지 않음)
+            try {
+                if (pending == SHUTDOWN) {
+                    shuttingDown = true;
+                    List<Pending> rest = new ArrayList<>();
+                    intake.drainTo(rest);
+                    for (Pending p : rest) {
+                        add(p, buffers, deadlines);
+                    }
+                } else if (pending != null) {
+                    add(pending, buffers, deadlines);
+                }
+
+                // 대기 시간이 지난 묶음 전송 (닫을 때는 전부)
+                long now = System.nanoTime();
+                for (Iterator<Map.Entry<String, Long>> it = deadlines.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Long> entry = it.next();
+                    if (shuttingDown || entry.getValue() - now <= 0) {
+                        it.remove();
+                        dispatch(entry.getKey(), buffers.remove(entry.getKey()));
+                    }
+                }
+            } catch (Throwable e) {
+                if (pending != null && pending != SHUTDOWN) {
+                    pending.future.completeExceptionally(e);  // 이미 완료됐으면 무시됨
+                }
+                for (List<Pending> buffer : buffers.values()) {
+                    fail(buffer, e);
+                }
+                buffers.clear();
+                deadlines.clear();
+            }
+        }
+    }
+
+    private static void fail(List<Pending> batch, Throwable error) {
+        for (Pending pending : batch) {
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    private void add(Pending pending, Map<String, List<Pending>> buffers, Map<String, Long> deadlines) {
+        String method;
+        try {
+            method = pending.request.getPayment().getName();
+        } catch (Throwable e) {  // 이 요청만 실패 처리하고 나머지는 계속
+            pending.future.completeExceptionally(e);
+            return;
+        }
+        if (method == null) {
+            pending.future.completeExceptionally(new IllegalArgumentException("결제 수단 이름이 없습니다"));
+            return;
+        }
+        List<Pending> buffer = buffers.computeIfAbsent(method, key -> new ArrayList<>(maxBatchSize));
+        if (buffer.isEmpty()) {
+            deadlines.put(method, System.nanoTime() + maxBatchDelayNanos);
+        }
+        buffer.add(pending);
+        if (buffer.size() >= maxBatchSize) {
+            buffers.remove(method);
+            deadlines.remove(method);
+            dispatch(method, buffer);
+        }
+    }
+
+    private void dispatch(String method, List<Pending> batch) {
+        dispatchPermits.acquireUninterruptibly();
+        batches.incrementAndGet();
+        try {
+            dispatchers.execute(() -> send(method, batch));
+        } catch (Throwable e) {  // 실행기에 넘기지 못하면 요청을 바로 실패 처리
+            dispatchPermits.release();
+            fail(batch, e);
+        }
+    }
+
+    private void send(String method, List<Pending> batch) {
+        try {
+            List<PaymentRequest> requests = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                requests.add(pending.request);
+            }
+            List<PaymentResult> results = gateway.process(method, requests);
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("게이트웨이 응답 개수가 다릅니다: "
+                    + results.size() + " != " + batch.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            fail(batch, e);
+        } finally {
+            dispatchPermits.release();
+        }
+    }
+
+    // === 상태 ===
+
+    public int queueDepth() {
+        return intake.size();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public double averageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : (double) submitted.get() / count;
+    }
+
+    // 새 요청을 막고, 쌓인 요청을 모두 보낸 뒤 게이트웨이 응답까지 기다림
+    @Override
+    public void close() {
+        try {
+            if (!closed) {
+                closed = true;
+                intake.put(SHUTDOWN);
+            }
+            // 배치 스레드가 인터럽트로 먼저 끝났어도 전송 스레드는 정리
+            batcher.join();
+            dispatchers.shutdown();
+            dispatchers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        PaymentStrategy card = new CardPayment("1234-5678-9012-3456");
+        PaymentStrategy bank = new BankTransfer("국민은행", "123-456-789");
+        PaymentStrategy kakao = new KakaoPay("010-1234-5678");
+
+        // === 기본 사용: 완료 콜백 ===
+        System.out.println("=== 비동기 결제 ===");
+        try (PaymentPipeline pipeline = new PaymentPipeline(
+                new StubPaymentGateway(50, 0, 1_000_000), 100, 10, 20, 4)) {
+            pipeline.onComplete((result, error) ->
+                System.out.println("[콜백] " + (error == null ? result : "실패: " + error)));
+
+            List<CompletableFuture<PaymentResult>> futures = new ArrayList<>();
+            futures.add(pipeline.submit("order-1", card, 50000));
+            futures.add(pipeline.submit("order-2", bank, 30000));
+            futures.add(pipeline.submit("order-3", kakao, 15000));
+            futures.add(pipeline.submit("order-4", card, 2_000_000));  // 한도 초과
+            futures.add(pipeline.submit("order-5", kakao, 8000));
+            System.out.println("제출 완료 (응답은 아직 대기 중)");
+
+            for (CompletableFuture<PaymentResult> future : futures) {
+                PaymentResult result = future.join();
+                if (result.isApproved()) {
+                    result.getRequest().getPayment().printReceipt(result.getRequest().getAmount());
+                }
+            }
+            System.out.println("게이트웨이 호출 " + pipeline.getBatchCount() + "번 (결제 방식별로 묶음)");
+        }
+
+        // === 처리량: 한 건씩 vs 파이프라인 ===
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        PaymentStrategy[] methods = {card, bank, kakao};
+        Random random = new Random(42);
+        List<PaymentRequest> requests = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            requests.add(new PaymentRequest("order-" + i, methods[random.nextInt(3)], 1000 + random.nextInt(100_000)));
+        }
+        System.out.println("\n=== 주문 " + orders + "건, 왕복 10ms ===");
+
+        // 기존 방식: 한 건씩 왕복 (시간이 오래 걸려서 200건만 측정)
+        StubPaymentGateway sequentialGateway = new StubPaymentGateway(10, 100, 1_000_000);
+        int sample = Math.min(200, orders);
+        long start = System.nanoTime();
+        for (PaymentRequest request : requests.subList(0, sample)) {
+            sequentialGateway.process(request.getPayment().getName(), List.of(request));
+        }
+        double sequentialRate = sample / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("한 건씩 처리:         %8.0f 건/초%n", sequentialRate);
+
+        for (int concurrency : new int[]{1, 4, 16}) {
+            StubPaymentGateway gateway = new StubPaymentGateway(10, 100, 1_000_000);
+            PaymentPipeline pipeline = new PaymentPipeline(gateway, 1000, 32, 5, concurrency);
+            start = System.nanoTime();
+            List<CompletableFuture<PaymentResult>> futures = new ArrayList<>(orders);
+            for (PaymentRequest request : requests) {
+                futures.add(pipeline.submit(request));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            double rate = orders / ((System.nanoTime() - start) / 1e9);
+            pipeline.close();
+            System.out.printf("파이프라인 동시 %2d개: %8.0f 건/초 (%.1f배), 배치 %d번, 평균 %.1f건, 최대 동시 호출 %d%n",
+                concurrency, rate, rate / sequentialRate, pipeline.getBatchCount(),
+                pipeline.averageBatchSize(), gateway.getPeakInFlight());
+        }
+    }
+}
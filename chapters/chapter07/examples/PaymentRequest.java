@@ -0,0 +1,37 @@
+/**
+ * Chapter 07 - 결제 요청 (주문 번호 + 결제 방식 + 금액)
+ */
+public class PaymentRequest {
+    private final String orderId;
+    private final PaymentStrategy payment;
+    private final int amount;
+    private final long createdAt = System.nanoTime();
+
+    public PaymentRequest(String orderId, PaymentStrategy payment, int amount) {
+        this.orderId = orderId;
+        this.payment = payment;
+        this.amount = amount;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public PaymentStrategy getPayment() {
+        return payment;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    // 요청이 만들어진 시각 (System.nanoTime 기준)
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return orderId + "(" + payment.getName() + ", " + amount + "원)";
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Chapter 07 - 결제 결과 (승인 또는 거절)
+ */
+public class PaymentResult {
+    private final PaymentRequest request;
+    private final boolean approved;
+    private final String message;  // 승인 번호 또는 거절 사유
+
+    private PaymentResult(PaymentRequest request, boolean approved, String message) {
+        this.request = request;
+        this.approved = approved;
+        this.message = message;
+    }
+
+    public static PaymentResult approved(PaymentRequest request, String approvalCode) {
+        return new PaymentResult(request, true, approvalCode);
+    }
+
+    public static PaymentResult declined(PaymentRequest request, String reason) {
+        return new PaymentResult(request, false, reason);
+    }
+
+    public PaymentRequest getRequest() {
+        return request;
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return request + " " + (approved ? "승인 " : "거절 ") + message;
+    }
+}
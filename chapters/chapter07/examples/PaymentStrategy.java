@@ -2,10 +2,18 @@
  * 다형성 실무 예제 - 전략 패턴 (Strategy Pattern)
  *
  * 결제 방식을 다형성으로 처리하는 실무적인 예제
+ * 결제/영수증 출력은 AsyncLogger로 비동기 기록 (결제 경로가 콘솔 I/O를 기다리지 않음)
+ * -Dpayment.log=파일 경로, -Dpayment.log.policy=BLOCK|DROP 으로 설정
+ * (기본 BLOCK - 영수증 로그를 잃지 않도록. DROP은 로그가 밀리면 줄을 버림)
+ *
+ * 실행: javac PaymentStrategy.java AsyncLogger.java Utf8.java && java PaymentStrategyMain
  */
 
 // 결제 전략 추상 클래스
 abstract class PaymentStrategy {
+    // 모든 결제 방식이 함께 쓰는 로거
+    protected static final AsyncLogger LOG = AsyncLogger.fromSystemProperties("payment.log");
+
     protected String name;
 
     public PaymentStrategy(String name) {
@@ -15,24 +23,30 @@ abstract class PaymentStrategy {
     // 추상 메소드 - 각 결제 방식이 구현
     public abstract void pay(int amount);
 
+    public String getName() {
+        return name;
+    }
+
     // 공통 메소드
     public void printReceipt(int amount) {
-        System.out.println("결제 완료: " + amount + "원 (" + name + ")");
+        LOG.begin("receipt").field("method", name).field("amount", amount).end();
     }
 }
 
 // 카드 결제
 class CardPayment extends PaymentStrategy {
     private String cardNumber;
+    private String maskedCardNumber;  // 결제마다 만들지 않도록 한 번만 계산
 
     public CardPayment(String cardNumber) {
         super("신용카드");
         this.cardNumber = cardNumber;
+        this.maskedCardNumber = maskCardNumber();
     }
 
     @Override
     public void pay(int amount) {
-        System.out.println("카드번호 " + maskCardNumber() + "로 " + amount + "원 결제");
+        LOG.begin("pay").field("method", name).field("card", maskedCardNumber).field("amount", amount).end();
         printReceipt(amount);
     }
 
@@ -54,7 +68,8 @@ class BankTransfer extends PaymentStrategy {
 
     @Override
     public void pay(int amount) {
-        System.out.println(bankName + " " + accountNumber + "에서 " + amount + "원 이체");
+        LOG.begin("pay").field("method", name).field("bank", bankName)
+            .field("account", accountNumber).field("amount", amount).end();
         printReceipt(amount);
     }
 }
@@ -70,7 +85,7 @@ class KakaoPay extends PaymentStrategy {
 
     @Override
     public void pay(int amount) {
-        System.out.println("카카오페이 (" + phoneNumber + ")로 " + amount + "원 결제");
+        LOG.begin("pay").field("method", name).field("phone", phoneNumber).field("amount", amount).end();
         printReceipt(amount);
     }
 }
@@ -80,14 +95,14 @@ class OrderProcessor {
 
     // PaymentStrategy 타입으로 모든 결제 방식 처리 (다형성)
     public void processPayment(PaymentStrategy payment, int amount) {
-        System.out.println("=== 결제 처리 시작 ===");
+        PaymentStrategy.LOG.begin("order.start").field("method", payment.getName()).end();
         payment.pay(amount);
-        System.out.println("=== 결제 처리 완료 ===\n");
+        PaymentStrategy.LOG.begin("order.done").field("method", payment.getName()).end();
     }
 }
 
-// 메인 클래스
-public class PaymentStrategy {
+// 메인 클래스 (파일 이름과 같은 PaymentStrategy는 위의 추상 클래스)
+class PaymentStrategyMain {
     public static void main(String[] args) {
         OrderProcessor processor = new OrderProcessor();
 
@@ -101,7 +116,7 @@ public class PaymentStrategy {
         processor.processPayment(kakao, 15000);
 
         // 배열로 다형성 활용
-        System.out.println("=== 배열로 다형성 활용 ===");
+        PaymentStrategy.LOG.begin("section").field("name", "배열로 다형성 활용").end();
         PaymentStrategy[] payments = {card, bank, kakao};
         int[] amounts = {10000, 20000, 30000};
 
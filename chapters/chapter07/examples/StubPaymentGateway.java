@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chapter 07 - 로컬 스텁 게이트웨이
+ *
+ * 실제 네트워크 대신 sleep으로 왕복 지연을 흉내 냄
+ * - 배치 한 번 = roundTripMillis + 건당 perItemMicros
+ * - 한도(limit)를 넘는 금액은 거절
+ * - 동시에 처리 중인 배치 수의 최댓값을 기록 (동시성 확인용)
+ */
+public class StubPaymentGateway implements PaymentGateway {
+    private final long roundTripMillis;
+    private final long perItemMicros;
+    private final int limit;
+    private final AtomicLong approvalSequence = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    public StubPaymentGateway(long roundTripMillis, long perItemMicros, int limit) {
+        this.roundTripMillis = roundTripMillis;
+        this.perItemMicros = perItemMicros;
+        this.limit = limit;
+    }
+
+    @Override
+    public List<PaymentResult> process(String method, List<PaymentRequest> batch) throws InterruptedException {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            long micros = roundTripMillis * 1000 + perItemMicros * batch.size();
+            Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+            batches.incrementAndGet();
+            requests.addAndGet(batch.size());
+
+            List<PaymentResult> results = new ArrayList<>(batch.size());
+            for (PaymentRequest request : batch) {
+                if (request.getAmount() > limit) {
+                    results.add(PaymentResult.declined(request, "한도 초과"));
+                } else {
+                    results.add(PaymentResult.approved(request, "A" + approvalSequence.incrementAndGet()));
+                }
+            }
+            return results;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    // 게이트웨이까지 도달한 결제 요청 수
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+}
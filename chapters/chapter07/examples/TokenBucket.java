@@ -0,0 +1,50 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chapter 07 - 락 없는 토큰 버킷 속도 제한기
+ *
+ * 토큰 개수 대신 "다음 토큰이 생기는 시각" 하나만 AtomicLong으로 관리 (GCRA 방식)
+ * - 토큰 하나 = interval (1초 / 초당 허용 수)
+ * - 최대 burst개까지 한꺼번에 허용
+ * - 갱신은 CAS 재시도로 처리 → 락 없음
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFree;  // 토큰을 모두 썼을 때 버킷이 다시 가득 차는 시각의 기준점
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("초당 허용 수와 burst는 0보다 커야 합니다");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.nextFree = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    // 토큰이 있으면 바로 가져가고 true, 없으면 false
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    // maxWait 안에 토큰이 생기면 예약하고 기다릴 시간(ns)을 반환, 아니면 -1
+    public long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFree.get();
+            long next = Math.max(current, now - burstNanos) + intervalNanos;
+            long wait = Math.max(0, next - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (nextFree.compareAndSet(current, next)) {
+                return wait;
+            }
+        }
+    }
+
+    // 예약했지만 쓰지 못한 토큰 하나를 돌려줌 (이후 예약이 interval만큼 앞당겨짐)
+    public void refund() {
+        nextFree.addAndGet(-intervalNanos);  // 오래 쉬어서 기준점이 과거면 reserve에서 burst 한도로 맞춰짐
+    }
+}
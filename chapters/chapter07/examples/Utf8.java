@@ -0,0 +1,51 @@
+/**
+ * Chapter 07 - 문자 단위 UTF-8 인코딩 (getBytes() 없이 재사용 바이트 배열에 바로 씀)
+ *
+ * String.getBytes(UTF_8)와 같은 결과
+ * - 서로게이트 쌍은 4바이트
+ * - 짝 없는 서로게이트 문자는 '?' 1바이트로 치환
+ *
+ * 사용: for (int i = 0; i < s.length(); i += Utf8.charCount(s, i)) pos = Utf8.put(s, i, bytes, pos);
+ *       한 번에 최대 MAX_BYTES바이트를 쓰므로 호출 전에 그만큼 자리를 확보
+ */
+public final class Utf8 {
+
+    public static final int MAX_BYTES = 4;
+
+    private Utf8() {
+    }
+
+    // i번째 문자(서로게이트 쌍이면 두 문자)를 dest[position]부터 쓰고 다음 위치 반환
+    public static int put(CharSequence text, int i, byte[] dest, int position) {
+        char c = text.charAt(i);
+        if (c < 0x80) {
+            dest[position++] = (byte) c;
+        } else if (c < 0x800) {
+            dest[position++] = (byte) (0xC0 | c >> 6);
+            dest[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (isPair(text, i)) {
+            int cp = Character.toCodePoint(c, text.charAt(i + 1));
+            dest[position++] = (byte) (0xF0 | cp >> 18);
+            dest[position++] = (byte) (0x80 | cp >> 12 & 0x3F);
+            dest[position++] = (byte) (0x80 | cp >> 6 & 0x3F);
+            dest[position++] = (byte) (0x80 | cp & 0x3F);
+        } else if (Character.isSurrogate(c)) {
+            dest[position++] = '?';  // getBytes()와 같은 치환
+        } else {
+            dest[position++] = (byte) (0xE0 | c >> 12);
+            dest[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            dest[position++] = (byte) (0x80 | c & 0x3F);
+        }
+        return position;
+    }
+
+    // put이 i에서 읽는 문자 수 (서로게이트 쌍이면 2)
+    public static int charCount(CharSequence text, int i) {
+        return isPair(text, i) ? 2 : 1;
+    }
+
+    private static boolean isPair(CharSequence text, int i) {
+        return Character.isHighSurrogate(text.charAt(i)) && i + 1 < text.length()
+            && Character.isLowSurrogate(text.charAt(i + 1));
+    }
+}
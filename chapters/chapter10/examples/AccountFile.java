@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Chapter 11 - 계좌(User) 목록을 고정 길이 바이너리 파일로 저장 / 메모리 매핑으로 읽기
+ *
+ * i번째 레코드 위치 = 헤더 + i * 레코드 크기 → 필요한 레코드만 바로 읽음
+ * 쓰기 모드로 열면 잔액을 파일 위치에 바로 덮어씀
+ *
+ * 헤더/세그먼트 매핑/문자열 칸 처리는 chapter14의 UserFile과 같은 방식
+ * (예제는 장마다 따로 컴파일하므로 코드를 공유하지 않고, 레코드 구성만 다름)
+ *
+ * 헤더(16바이트): 매직(4) 버전(4) 레코드 수(8)
+ * 레코드(88바이트): 잔액(4) ID 길이(2) ID(34) 이름 길이(2) 이름(46)
+ *
+ * 실행: javac CustomException.java AccountFile.java && java AccountFile
+ */
+public class AccountFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x41434354;  // "ACCT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private static final int RECORD_SIZE = 88;
+    private static final int BALANCE = 0;
+    private static final int ID = 4;
+    private static final int ID_BYTES = 34;
+    private static final int NAME = ID + 2 + ID_BYTES;
+    private static final int NAME_BYTES = 46;
+
+    private static final int RECORDS_PER_SEGMENT = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final long count;
+    private final MappedByteBuffer[] segments;
+
+    private AccountFile(FileChannel channel, long count, MappedByteBuffer[] segments) {
+        this.channel = channel;
+        this.count = count;
+        this.segments = segments;
+    }
+
+    public static void write(Path path, Collection<User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(users.size()).flip();
+            writeFully(channel, header);
+
+            ByteBuffer batch = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+            for (User user : users) {
+                if (batch.remaining() < RECORD_SIZE) {
+                    batch.flip();
+                    writeFully(channel, batch);
+                    batch.clear();
+                }
+                int start = batch.position();
+                batch.putInt(start + BALANCE, user.getBalance());
+                putString(batch, start + ID, ID_BYTES, user.getId());
+                putString(batch, start + NAME, NAME_BYTES, user.getName());
+                batch.position(start + RECORD_SIZE);
+            }
+            batch.flip();
+            writeFully(channel, batch);
+        }
+    }
+
+    public static AccountFile open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+            ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("계좌 파일이 아닙니다: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("지원하지 않는 버전: " + version);
+            }
+            long count = header.getLong();
+            if (count < 0) {
+                throw new IOException("레코드 수가 잘못되었습니다: " + count);
+            }
+            if (count > (channel.size() - HEADER_SIZE) / RECORD_SIZE) {  // count * RECORD_SIZE 오버플로 없이 비교
+                throw new IOException("파일이 잘렸습니다: " + path);
+            }
+
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            int segmentCount = (int) ((count + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = (long) s * RECORDS_PER_SEGMENT;
+                long records = Math.min(RECORDS_PER_SEGMENT, count - first);
+                segments[s] = channel.map(mode, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+            return new AccountFile(channel, count, segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() { return count; }
+    public int balance(long index) { return segment(index).getInt(offset(index) + BALANCE); }
+    public String id(long index) { return getString(segment(index), offset(index) + ID, ID_BYTES); }
+    public String name(long index) { return getString(segment(index), offset(index) + NAME, NAME_BYTES); }
+
+    public User get(long index) {
+        return new User(id(index), name(index), balance(index));
+    }
+
+    // 잔액 덮어쓰기 (쓰기 모드에서만)
+    public void setBalance(long index, int balance) {
+        segment(index).putInt(offset(index) + BALANCE, balance);
+    }
+
+    // 변경 내용을 디스크에 반영
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            if (!segment.isReadOnly()) {
+                segment.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return segments[(int) (index / RECORDS_PER_SEGMENT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    private static void putString(ByteBuffer buffer, int at, int maxBytes, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException(maxBytes + "바이트 초과: " + value);
+        }
+        buffer.putShort(at, (short) bytes.length);
+        buffer.put(at + 2, bytes);
+        for (int i = bytes.length; i < maxBytes; i++) {
+            buffer.put(at + 2 + i, (byte) 0);
+        }
+    }
+
+    // 길이가 칸 크기를 넘으면 손상된 레코드
+    private static String getString(ByteBuffer buffer, int at, int maxBytes) {
+        int length = buffer.getShort(at) & 0xFFFF;
+        if (length > maxBytes) {
+            throw new IllegalStateException("손상된 레코드: 문자열 길이 " + length + " > " + maxBytes);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Files.createTempFile("accounts", ".bin");
+        try {
+            AccountFile.write(path, List.of(
+                new User("user1", "홍길동", 10000),
+                new User("user2", "김철수", 5000),
+                new User("user3", "이영희", 20000)
+            ));
+
+            try (AccountFile file = AccountFile.open(path, true)) {
+                System.out.println("=== 파일에서 읽기 ===");
+                for (long i = 0; i < file.size(); i++) {
+                    System.out.println(file.id(i) + " " + file.name(i) + ": " + file.balance(i) + "원");
+                }
+
+                // 파일에서 꺼낸 User로 출금 → 결과 잔액만 파일에 덮어씀
+                User user = file.get(1);
+                try {
+                    user.withdraw(3000);
+                    file.setBalance(1, user.getBalance());
+                    user.withdraw(3000);  // 잔액 부족!
+                } catch (InsufficientBalanceException e) {
+                    System.out.println("\n출금 실패: " + e.getMessage());
+                }
+            }
+
+            try (AccountFile file = AccountFile.open(path, false)) {
+                System.out.println("다시 열었을 때 " + file.name(1) + " 잔액: " + file.balance(1) + "원");
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,705 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Chapter 11 - 잔액 원장: 쓰기 전 로그(WAL) + 스냅샷 + 장애 복구
+ *
+ * User.withdraw()는 메모리의 잔액만 바꾸므로 프로세스가 죽으면 사라짐
+ * - 입금/출금마다 이벤트를 로그 파일 끝에 추가하고, 디스크 반영(fsync)이 끝나야 반환
+ * - 그룹 커밋: 기록 스레드가 쌓인 이벤트를 한 번에 쓰고 fsync는 1번만 → 동시 요청이 많을수록 효율적
+ * - 스냅샷: 현재 잔액 전체를 파일로 저장하고, 그 이전 로그 파일은 삭제
+ * - 복구: 스냅샷을 읽고 그 이후 로그만 다시 적용 (마지막에 반쯤 쓰인 레코드는 CRC로 걸러내고 잘라냄)
+ * - 기록 실패: 실패한 변경은 메모리에서 되돌리고 이후로는 읽기만 가능 (디스크에 일부 남았을 수 있으므로 재시작해서 복구)
+ * - 파일 생성/이름 변경/삭제 후에는 디렉토리도 fsync (리눅스 기준 - 안 하면 정전 시 파일 자체가 사라질 수 있음)
+ *
+ * 로그 레코드: 길이(4) CRC32(4) [순번(8) 종류(1) 금액(4) ID 길이(2) ID 이름 길이(2) 이름]
+ *
+ * 실행: javac CustomException.java AccountLedger.java && java AccountLedger [스레드수] [측정초]
+ */
+public class AccountLedger implements AutoCloseable {
+
+    private static final byte OPEN = 1;
+    private static final byte DEPOSIT = 2;
+    private static final byte WITHDRAW = 3;
+    private static final byte COMPACT = 4;  // 로그에는 안 씀 - 기록 스레드에게 보내는 신호
+    private static final byte BARRIER = 5;  // 로그에는 안 씀 - 앞선 변경이 모두 디스크에 반영되면 완료
+
+    private static final int SNAPSHOT_MAGIC = 0x534E4150;  // "SNAP"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final long MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_BATCH = 4096;
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;  // 레코드에 길이를 2바이트로 저장
+
+    private final Path directory;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // 읽기 락 = 일반 변경 (동시에 여러 개), 쓰기 락 = 스냅샷 시점 고정 (잠깐)
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ScheduledExecutorService snapshotScheduler;
+
+    // 아래 필드는 기록 스레드만 사용
+    private FileChannel segment;
+    private Path currentSegmentPath;
+    private long segmentNumber;  // 파일 이름용 번호 (레코드 순번과 무관하게 1씩 증가)
+    private long segmentMaxSeq;
+    private final NavigableMap<Path, Long> closedSegments = new TreeMap<>();
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * 1024);
+    private final CRC32 crc = new CRC32();
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile long batches;
+    private volatile long records;
+
+    private AccountLedger(Path directory, long snapshotIntervalMillis) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        recover();
+        openSegment();
+
+        writer = new Thread(this::writeLoop, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        if (snapshotIntervalMillis > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ledger-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("스냅샷 실패: " + e);
+                }
+            }, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            snapshotScheduler = null;
+        }
+    }
+
+    // 디렉토리에서 원장 열기 (스냅샷 + 로그로 복구)
+    public static AccountLedger open(Path directory, long snapshotIntervalMillis) throws IOException {
+        return new AccountLedger(directory, snapshotIntervalMillis);
+    }
+
+    // === 계좌 연산 (디스크 반영 후 반환) ===
+
+    public void openAccount(String id, String name, int balance) {
+        if (balance < 0) {
+            throw new IllegalArgumentException("초기 잔액은 0 이상이어야 합니다: " + balance);
+        }
+        checkString(id, CustomException.ID_EMPTY_MESSAGE);
+        checkString(name, CustomException.NAME_EMPTY_MESSAGE);
+        Account account = new Account(name, balance);
+        Pending pending;
+        snapshotLock.readLock().lock();
+        try {
+            // 개설 기록이 큐에 들어가기 전에 다른 스레드가 이 계좌를 변경하지 못하도록 계좌 락 안에서
+            synchronized (account) {
+                if (accounts.putIfAbsent(id, account) != null) {
+                    throw new IllegalArgumentException("이미 있는 계좌: " + id);
+                }
+                try {
+                    pending = enqueue(OPEN, id, name, balance);
+                } catch (RuntimeException e) {
+                    accounts.remove(id, account);  // 로그에 못 남긴 계좌는 만들지 않음
+                    throw e;
+                }
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        try {
+            awaitDurable(pending);
+        } catch (RuntimeException e) {
+            accounts.remove(id, account);
+            throw e;
+        }
+    }
+
+    public int deposit(String id, int amount) {
+        checkAmount(amount);
+        return apply(DEPOSIT, id, amount);
+    }
+
+    // 잔액이 부족하면 InsufficientBalanceException (로그에 남지 않음)
+    public int withdraw(String id, int amount) {
+        checkAmount(amount);
+        return apply(WITHDRAW, id, amount);
+    }
+
+    public int getBalance(String id) {
+        Account account = account(id);
+        synchronized (account) {
+            return account.balance;
+        }
+    }
+
+    // CustomException의 User 형태로 조회
+    public User getUser(String id) {
+        Account account = account(id);
+        synchronized (account) {
+            return new User(id, account.name, account.balance);
+        }
+    }
+
+    public Set<String> accountIds() {
+        return Collections.unmodifiableSet(accounts.keySet());
+    }
+
+    // 평균 그룹 커밋 크기 (fsync 1번에 묶인 이벤트 수)
+    public double averageBatchSize() {
+        return batches == 0 ? 0 : (double) records / batches;
+    }
+
+    private int apply(byte type, String id, int amount) {
+        Account account = account(id);
+        int delta = type == WITHDRAW ? -amount : amount;
+        Pending pending;
+        int balance;
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (account) {
+                if (type == WITHDRAW && account.balance < amount) {
+                    throw new InsufficientBalanceException(account.balance, amount);
+                }
+                // 순번 발급 → 큐 등록 → 메모리 반영을 같은 락 안에서 (계좌별 로그 순서 = 적용 순서)
+                pending = enqueue(type, id, null, amount);
+                account.balance += delta;
+                balance = account.balance;
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        try {
+            awaitDurable(pending);
+        } catch (RuntimeException e) {
+            // 기록 실패 → 메모리 반영 취소 (이후 변경도 모두 실패하므로 더하고 빼는 순서는 상관없음)
+            synchronized (account) {
+                account.balance -= delta;
+            }
+            throw e;
+        }
+        return balance;
+    }
+
+    // 읽기 락을 잡은 상태에서 호출 (closed는 쓰기 락 안에서만 바뀌므로 확인과 등록 사이에 닫히지 않음)
+    private Pending enqueue(byte type, String id, String name, int amount) {
+        checkWritable();
+        Pending pending = new Pending(sequence.incrementAndGet(), type, id, name, amount);
+        submit(pending);
+        return pending;
+    }
+
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("원장이 닫혔습니다");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("로그 기록 실패로 원장을 사용할 수 없습니다", failure);
+        }
+    }
+
+    // 큐에 넣은 뒤 다시 확인 - 그 사이 기록 스레드가 끝났으면 아무도 완료시키지 않으므로 직접 꺼내서 실패 처리
+    private void submit(Pending pending) {
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            throw new IllegalStateException("원장이 닫혔습니다");
+        }
+    }
+
+    private static void awaitDurable(Pending pending) {
+        try {
+            pending.done.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private Account account(String id) {
+        Account account = accounts.get(id);
+        if (account == null) {
+            throw new InvalidUserException("없는 계좌입니다", id);
+        }
+        return account;
+    }
+
+    private static void checkString(String value, String emptyMessage) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(emptyMessage);
+        }
+        int bytes = value.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("문자열이 너무 깁니다: " + bytes + "바이트 (최대 " + MAX_STRING_BYTES + ")");
+        }
+    }
+
+    private static void checkAmount(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("금액은 0보다 커야 합니다: " + amount);
+        }
+    }
+
+    // === 스냅샷 ===
+
+    // 현재 잔액을 파일로 저장하고, 스냅샷에 포함된 로그 파일 정리
+    public void snapshot() throws IOException {
+        Map<String, Account> copy = new TreeMap<>();
+        long cut;
+        Pending barrier;
+        snapshotLock.writeLock().lock();  // 진행 중인 변경이 끝날 때까지 대기 → 일관된 시점
+        try {
+            if (closed) {
+                throw new IllegalStateException("원장이 닫혔습니다");
+            }
+            if (failure != null) {
+                throw new IOException("로그 기록 실패 후에는 스냅샷을 만들지 않습니다", failure);
+            }
+            cut = sequence.get();
+            accounts.forEach((id, account) -> copy.put(id, new Account(account.name, account.balance)));
+            barrier = new Pending(cut, BARRIER, null, null, 0);
+            queue.add(barrier);  // 쓰기 락 안이므로 cut까지의 변경은 모두 이보다 앞에 있음
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        // 메모리에는 반영됐지만 아직 기록 중인 변경이 있음 → 모두 디스크에 남은 뒤에만 저장
+        // (기록에 실패하면 여기서 예외 - 실패한 변경이 스냅샷에 들어가지 않음)
+        try {
+            awaitDurable(barrier);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(cut).putInt(copy.size());
+        for (Map.Entry<String, Account> entry : copy.entrySet()) {
+            byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] name = entry.getValue().name.getBytes(StandardCharsets.UTF_8);
+            buffer = ensure(buffer, 8 + id.length + name.length + 4);
+            buffer.putShort((short) id.length).put(id).putShort((short) name.length).put(name)
+                .putInt(entry.getValue().balance);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer = ensure(buffer, 4);
+        buffer.putInt((int) checksum.getValue()).flip();
+
+        // 임시 파일에 쓰고 fsync 후 이름 변경 → 스냅샷은 항상 온전한 파일
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        // 기록 스레드에게 로그 정리 요청 (그 사이 닫혔으면 생략 - 다음에 열 때 스냅샷 이전 로그는 건너뜀)
+        Pending compact = new Pending(cut, COMPACT, null, null, 0);
+        queue.add(compact);
+        if (closed && queue.remove(compact)) {
+            return;
+        }
+        awaitDurable(compact);
+    }
+
+    // === 기록 스레드 (그룹 커밋) ===
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && queue.isEmpty()) break;
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);  // 그 사이 쌓인 요청을 한 번에
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                failure = e;
+                for (Pending pending : batch) {
+                    pending.done.completeExceptionally(new UncheckedIOException(e));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        batchBuffer.clear();
+        List<Pending> compactions = new ArrayList<>();
+        int written = 0;
+        for (Pending pending : batch) {
+            if (pending.type == COMPACT) {
+                compactions.add(pending);
+            } else if (pending.type != BARRIER) {
+                encode(pending);
+                segmentMaxSeq = Math.max(segmentMaxSeq, pending.seq);
+                written++;
+            }
+        }
+        if (written > 0) {
+            batchBuffer.flip();
+            while (batchBuffer.hasRemaining()) {
+                segment.write(batchBuffer);
+            }
+            segment.force(false);  // 묶음 전체에 fsync 1번
+            batches++;
+            records += written;
+        }
+        for (Pending pending : batch) {
+            if (pending.type != COMPACT) {
+                pending.done.complete(null);
+            }
+        }
+
+        if (segment.size() >= MAX_SEGMENT_BYTES || !compactions.isEmpty()) {
+            rotate();
+        }
+        for (Pending compaction : compactions) {
+            deleteSegmentsUpTo(compaction.seq);
+            compaction.done.complete(null);
+        }
+    }
+
+    private void encode(Pending pending) {
+        byte[] id = pending.id.getBytes(StandardCharsets.UTF_8);
+        byte[] name = pending.name == null ? new byte[0] : pending.name.getBytes(StandardCharsets.UTF_8);
+        int payload = 8 + 1 + 4 + 2 + id.length + 2 + name.length;
+        batchBuffer = ensure(batchBuffer, 8 + payload);
+
+        int start = batchBuffer.position();
+        batchBuffer.putInt(payload).putInt(0);  // CRC 자리
+        batchBuffer.putLong(pending.seq).put(pending.type).putInt(pending.amount)
+            .putShort((short) id.length).put(id).putShort((short) name.length).put(name);
+        crc.reset();
+        crc.update(batchBuffer.array(), start + 8, payload);
+        batchBuffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void rotate() throws IOException {
+        if (segmentMaxSeq == 0) {
+            return;  // 빈 파일은 그대로 사용
+        }
+        segment.close();
+        closedSegments.put(currentSegmentPath, segmentMaxSeq);
+        openSegment();
+    }
+
+    private void deleteSegmentsUpTo(long seq) throws IOException {
+        boolean deleted = false;
+        Iterator<Map.Entry<Path, Long>> it = closedSegments.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getValue() <= seq) {
+                Files.deleteIfExists(entry.getKey());
+                it.remove();
+                deleted = true;
+            }
+        }
+        if (deleted) {
+            syncDirectory();
+        }
+    }
+
+    // 순번은 그룹 커밋 큐에서 순서가 섞여 나오므로 파일 이름에 쓰면 기존 파일과 겹칠 수 있음
+    // → 파일마다 새 번호를 붙여서 항상 새 파일에 씀
+    private void openSegment() throws IOException {
+        segmentNumber++;
+        currentSegmentPath = directory.resolve(String.format("wal-%020d.log", segmentNumber));
+        segment = FileChannel.open(currentSegmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        segmentMaxSeq = 0;
+        syncDirectory();
+    }
+
+    // 디렉토리 항목(파일 생성/이름 변경/삭제)을 디스크에 반영
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // === 복구 ===
+
+    private void recover() throws IOException {
+        long snapshotSeq = loadSnapshot();
+        sequence.set(snapshotSeq);
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(p -> p.getFileName().toString().matches("wal-\\d{20}\\.log"))
+                .sorted()
+                .toList();
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            String fileName = segments.get(i).getFileName().toString();
+            segmentNumber = Math.max(segmentNumber, Long.parseLong(fileName.substring(4, 24)));
+            long maxSeq = replay(segments.get(i), snapshotSeq, i == segments.size() - 1);
+            if (maxSeq == 0) {
+                Files.delete(segments.get(i));  // 레코드 없는 파일
+                continue;
+            }
+            sequence.set(Math.max(sequence.get(), maxSeq));
+            closedSegments.put(segments.get(i), maxSeq);
+        }
+    }
+
+    private long loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.limit() < 24) {
+            throw new IOException("스냅샷 파일이 손상되었습니다: " + path);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.limit() - 4);
+        if (buffer.getInt(buffer.limit() - 4) != (int) checksum.getValue()
+                || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+            throw new IOException("스냅샷 파일이 손상되었습니다: " + path);
+        }
+        long seq = buffer.getLong();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String id = getString(buffer);
+            String name = getString(buffer);
+            accounts.put(id, new Account(name, buffer.getInt()));
+        }
+        return seq;
+    }
+
+    // 로그 파일 하나를 다시 적용하고 가장 큰 순번 반환
+    private long replay(Path path, long afterSeq, boolean last) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 checksum = new CRC32();
+        long maxSeq = 0;
+        while (buffer.remaining() >= 8) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int expected = buffer.getInt();
+            boolean valid = length > 0 && length <= buffer.remaining();
+            if (valid) {
+                checksum.reset();
+                checksum.update(buffer.array(), buffer.position(), length);
+                valid = (int) checksum.getValue() == expected;
+            }
+            if (!valid) {
+                if (!last) {
+                    throw new IOException("로그 중간이 손상되었습니다: " + path + " @" + start);
+                }
+                truncate(path, start);  // 마지막 파일 끝의 반쯤 쓰인 레코드 → 버림
+                return maxSeq;
+            }
+
+            long seq = buffer.getLong();
+            byte type = buffer.get();
+            int amount = buffer.getInt();
+            String id = getString(buffer);
+            String name = getString(buffer);
+            maxSeq = Math.max(maxSeq, seq);
+            if (seq <= afterSeq) {
+                continue;  // 스냅샷에 이미 포함됨
+            }
+            switch (type) {
+                case OPEN -> accounts.put(id, new Account(name, amount));
+                case DEPOSIT -> accounts.get(id).balance += amount;
+                case WITHDRAW -> accounts.get(id).balance -= amount;
+                default -> throw new IOException("알 수 없는 레코드 종류: " + type);
+            }
+        }
+        if (buffer.hasRemaining()) {
+            truncate(path, buffer.position());
+        }
+        return maxSeq;
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int extra) {
+        if (buffer.remaining() >= extra) {
+            return buffer;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        return bigger.put(buffer);
+    }
+
+    // 남은 기록을 모두 디스크에 쓰고 종료
+    @Override
+    public void close() throws IOException {
+        try {
+            if (snapshotScheduler != null) {
+                snapshotScheduler.shutdown();  // 진행 중인 스냅샷은 끝까지
+                snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            // 변경은 읽기 락 안에서 closed를 확인하고 큐에 넣으므로, 쓰기 락 안에서 닫으면
+            // 닫힌 뒤에는 새 기록이 들어오지 않음 → 기록 스레드가 큐를 비우고 끝나면 남는 요청 없음
+            snapshotLock.writeLock().lock();
+            try {
+                closed = true;
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 닫히는 순간 들어온 요청은 기록되지 않았으므로 실패 처리
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.done.completeExceptionally(new IllegalStateException("원장이 닫혔습니다"));
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static class Account {
+        final String name;
+        int balance;
+
+        Account(String name, int balance) {
+            this.name = name;
+            this.balance = balance;
+        }
+    }
+
+    private static class Pending {
+        final long seq;
+        final byte type;
+        final String id;
+        final String name;
+        final int amount;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(long seq, byte type, String id, String name, int amount) {
+            this.seq = seq;
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        Path directory = Files.createTempDirectory("ledger");
+
+        try {
+            System.out.println("=== 원장 기본 사용 ===");
+            try (AccountLedger ledger = AccountLedger.open(directory, 500)) {
+                ledger.openAccount("user1", "홍길동", 10000);
+                ledger.withdraw("user1", 5000);
+                System.out.println("5000원 출금 성공. 잔액: " + ledger.getBalance("user1"));
+                try {
+                    ledger.withdraw("user1", 10000);  // 잔액 부족!
+                } catch (InsufficientBalanceException e) {
+                    System.out.println("출금 실패: " + e.getMessage());
+                }
+
+                // === 동시 출금/입금 처리량 ===
+                int accountCount = 1000;
+                for (int i = 0; i < accountCount; i++) {
+                    ledger.openAccount("acc" + i, "사용자" + i, 1_000_000);
+                }
+                AtomicLong ops = new AtomicLong();
+                AtomicLong rejected = new AtomicLong();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+                Thread[] threads = new Thread[threadCount];
+                for (int t = 0; t < threadCount; t++) {
+                    threads[t] = new Thread(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            String id = "acc" + random.nextInt(accountCount);
+                            try {
+                                if (random.nextBoolean()) {
+                                    ledger.withdraw(id, 1 + random.nextInt(100));
+                                } else {
+                                    ledger.deposit(id, 1 + random.nextInt(100));
+                                }
+                                ops.incrementAndGet();
+                            } catch (InsufficientBalanceException e) {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    });
+                    threads[t].start();
+                }
+                for (Thread thread : threads) thread.join();
+
+                System.out.printf("%n=== 스레드 %d개, %d초 ===%n", threadCount, seconds);
+                System.out.printf("처리량: %d ops/sec, 평균 그룹 커밋 크기: %.1f, 잔액 부족: %d%n",
+                    ops.get() / seconds, ledger.averageBatchSize(), rejected.get());
+                System.out.println("종료 전 잔액 합계: " + totalBalance(ledger));
+            }
+
+            // === 재시작 후 복구 ===
+            try (AccountLedger ledger = AccountLedger.open(directory, 0)) {
+                System.out.println("\n=== 복구 ===");
+                System.out.println("user1 잔액: " + ledger.getBalance("user1") + "원");
+                System.out.println("복구된 계좌 " + ledger.accountIds().size() + "개, 잔액 합계: " + totalBalance(ledger));
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static long totalBalance(AccountLedger ledger) {
+        long total = 0;
+        for (String id : ledger.accountIds()) {
+            total += ledger.getBalance(id);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,267 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Chapter 11 - 대량 사용자 검증 (오류 누적 + 청크 병렬 처리)
+ *
+ * validateUser()는 한 명씩, 첫 번째 실패에서 예외를 던지고 멈춤
+ * 대량 등록에서는 모든 규칙을 끝까지 검사해서 행마다 위반 사항을 전부 모아야 함
+ * - 규칙 위반은 행마다 long 비트마스크 하나로 기록 (규칙 i 위반 = i번째 비트)
+ * - 입력을 청크로 나눠 여러 스레드에서 검사
+ * - 거절된 행은 청크가 끝나는 대로 입력 순서대로 흘려보냄 (전체를 메모리에 모으지 않음)
+ *
+ * 실행: javac CustomException.java ValidationResult.java BatchUserValidator.java && java BatchUserValidator
+ */
+public class BatchUserValidator {
+
+    // 검증 규칙: violated가 true면 위반
+    public static final class Rule {
+        private final String code;
+        private final String message;
+        private final Predicate<User> violated;
+
+        public Rule(String code, String message, Predicate<User> violated) {
+            this.code = code;
+            this.message = message;
+            this.violated = violated;
+        }
+
+        public String getCode() { return code; }
+        public String getMessage() { return message; }
+    }
+
+    // 기본 규칙 (validateUser의 규칙/메시지를 그대로 쓰고 + 추가 규칙)
+    public static List<Rule> defaultRules() {
+        return List.of(
+            new Rule("ID_EMPTY", CustomException.ID_EMPTY_MESSAGE, CustomException::isIdEmpty),
+            new Rule("NAME_EMPTY", CustomException.NAME_EMPTY_MESSAGE, CustomException::isNameEmpty),
+            new Rule("ID_FORMAT", "ID는 영문/숫자/_만 가능합니다",
+                u -> u.getId() != null && !u.getId().isEmpty() && !isIdFormat(u.getId())),
+            new Rule("ID_LENGTH", "ID는 32자 이하여야 합니다", u -> u.getId() != null && u.getId().length() > 32),
+            new Rule("NAME_BLANK", "이름이 공백뿐입니다",
+                u -> u.getName() != null && !u.getName().isEmpty() && u.getName().isBlank()),
+            new Rule("NAME_LENGTH", "이름은 15자 이하여야 합니다", u -> u.getName() != null && u.getName().length() > 15),
+            new Rule("BALANCE_NEGATIVE", "잔액이 음수입니다", u -> u.getBalance() < 0)
+        );
+    }
+
+    // 거절된 행
+    public static final class Rejection {
+        private final int row;
+        private final User user;
+        private final List<String> messages;
+
+        Rejection(int row, User user, List<String> messages) {
+            this.row = row;
+            this.user = user;
+            this.messages = messages;
+        }
+
+        public int getRow() { return row; }
+        public User getUser() { return user; }
+        public List<String> getMessages() { return messages; }
+
+        @Override
+        public String toString() {
+            return row + "행 " + (user == null ? "null" : user.getId()) + ": " + messages;
+        }
+    }
+
+    // 전체 결과 요약
+    public static final class Report {
+        private final int total;
+        private final int rejected;
+        private final Map<String, Long> violationsByRule;
+
+        Report(int total, int rejected, Map<String, Long> violationsByRule) {
+            this.total = total;
+            this.rejected = rejected;
+            this.violationsByRule = violationsByRule;
+        }
+
+        public int getTotal() { return total; }
+        public int getRejected() { return rejected; }
+        public Map<String, Long> getViolationsByRule() { return violationsByRule; }
+
+        @Override
+        public String toString() {
+            return "전체 " + total + "행, 거절 " + rejected + "행, 규칙별 위반 " + violationsByRule;
+        }
+    }
+
+    private final List<Rule> rules;
+    private final int chunkSize;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public BatchUserValidator(List<Rule> rules, int chunkSize, ExecutorService executor, int parallelism) {
+        if (rules.size() > 63) {
+            throw new IllegalArgumentException("규칙은 63개까지 가능합니다 (비트마스크): " + rules.size());
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism은 1 이상이어야 합니다: " + parallelism);
+        }
+        this.rules = List.copyOf(rules);
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    // 검증 실행 - 거절된 행은 입력 순서대로 rejected에 전달 (호출한 스레드에서)
+    public Report validate(List<User> users, Consumer<Rejection> rejected) throws InterruptedException {
+        long[] ruleCounts = new long[rules.size() + 1];  // 마지막 칸 = null
+        int rejectedRows = 0;
+
+        // 동시에 처리 중인 청크는 parallelism * 2개까지만 (결과가 한꺼번에 쌓이지 않도록)
+        Deque<Future<ErrorTable>> window = new ArrayDeque<>();
+        int next = 0;
+        while (next < users.size() || !window.isEmpty()) {
+            while (next < users.size() && window.size() < parallelism * 2) {
+                int from = next;
+                int to = Math.min(users.size(), from + chunkSize);
+                window.add(executor.submit(() -> check(users, from, to)));
+                next = to;
+            }
+            ErrorTable table = await(window.poll(), window);
+            for (int i = 0; i < table.size; i++) {
+                int row = table.rows[i];
+                long mask = table.masks[i];
+                rejectedRows++;
+                for (int bit = 0; bit < ruleCounts.length; bit++) {
+                    if ((mask & (1L << bit)) != 0) ruleCounts[bit]++;
+                }
+                rejected.accept(new Rejection(row, users.get(row), describe(mask)));
+            }
+        }
+
+        Map<String, Long> byRule = new LinkedHashMap<>();
+        if (ruleCounts[rules.size()] > 0) byRule.put("NULL", ruleCounts[rules.size()]);
+        for (int i = 0; i < rules.size(); i++) {
+            if (ruleCounts[i] > 0) byRule.put(rules.get(i).getCode(), ruleCounts[i]);
+        }
+        return new Report(users.size(), rejectedRows, byRule);
+    }
+
+    // 청크 하나 검사 - 위반 행만 (행 번호, 비트마스크)로 기록
+    private ErrorTable check(List<User> users, int from, int to) {
+        ErrorTable table = new ErrorTable();
+        for (int row = from; row < to; row++) {
+            User user = users.get(row);
+            long mask = 0;
+            if (user == null) {
+                mask = 1L << rules.size();
+            } else {
+                for (int i = 0; i < rules.size(); i++) {
+                    if (rules.get(i).violated.test(user)) {
+                        mask |= 1L << i;
+                    }
+                }
+            }
+            if (mask != 0) {
+                table.add(row, mask);
+            }
+        }
+        return table;
+    }
+
+    private List<String> describe(long mask) {
+        if ((mask & (1L << rules.size())) != 0) {
+            return List.of(CustomException.NULL_USER_MESSAGE);
+        }
+        List<String> messages = new ArrayList<>(Long.bitCount(mask));
+        for (int i = 0; i < rules.size(); i++) {
+            if ((mask & (1L << i)) != 0) messages.add(rules.get(i).getMessage());
+        }
+        return messages;
+    }
+
+    // 실패하거나 중단되면 창에 남은 청크는 결과를 쓸 곳이 없으므로 취소
+    private static ErrorTable await(Future<ErrorTable> future, Deque<Future<ErrorTable>> window)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            cancelAll(window);
+            throw new IllegalStateException("검증 규칙 실행 중 오류", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            cancelAll(window);
+            throw e;
+        }
+    }
+
+    private static void cancelAll(Deque<Future<ErrorTable>> window) {
+        for (Future<ErrorTable> pending : window) {
+            pending.cancel(true);
+        }
+        window.clear();
+    }
+
+    private static boolean isIdFormat(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 청크별 오류 표 (행 번호 + 비트마스크, 기본형 배열)
+    private static final class ErrorTable {
+        int[] rows = new int[16];
+        long[] masks = new long[16];
+        int size;
+
+        void add(int row, long mask) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                masks = Arrays.copyOf(masks, size * 2);
+            }
+            rows[size] = row;
+            masks[size] = mask;
+            size++;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            BatchUserValidator validator = new BatchUserValidator(defaultRules(), 10_000, executor, threads);
+
+            System.out.println("=== 규칙 전체 검사 ===");
+            List<User> sample = Arrays.asList(
+                new User("user1", "홍길동", 10000),
+                null,
+                new User("", "이름없음", 0),
+                new User("bad id!", "   ", -500),
+                new User("user5", "", 100)
+            );
+            Report report = validator.validate(sample, r -> System.out.println("거절: " + r));
+            System.out.println(report);
+
+            // === 대량 검사 ===
+            int rows = 2_000_000;
+            List<User> users = new ArrayList<>(rows);
+            Random random = new Random(42);
+            for (int i = 0; i < rows; i++) {
+                String id = random.nextInt(100) == 0 ? "" : "user_" + i;
+                String name = random.nextInt(200) == 0 ? " " : "사용자" + (i % 1000);
+                users.add(new User(id, name, random.nextInt(1000) - 5));
+            }
+            long[] streamed = new long[1];
+            long start = System.nanoTime();
+            report = validator.validate(users, r -> streamed[0]++);
+            System.out.printf("%n=== %d행 (%d스레드) ===%n%s%n%.1fms, 전달된 거절 행: %d%n",
+                rows, threads, report, (System.nanoTime() - start) / 1e6, streamed[0]);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chapter 11 - 동시 출금이 안전한 계좌 저장소 (락 스트라이핑)
+ *
+ * User.withdraw()는 "잔액 확인 → 차감"이 분리되어 있어 동시에 호출되면 둘 다 통과할 수 있음 (check-then-act)
+ * 전체에 락 하나를 걸면 안전하지만 모든 계좌가 한 줄로 서게 됨
+ * - 계좌 ID 해시로 락 여러 개 중 하나를 골라 사용 → 다른 계좌끼리는 동시에 처리
+ * - 이체는 락 두 개가 필요 → 항상 번호가 작은 락부터 잡아서 교착 상태(deadlock) 방지
+ *
+ * 실행: javac CustomException.java ConcurrentAccountStore.java && java ConcurrentAccountStore
+ */
+public class ConcurrentAccountStore {
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public ConcurrentAccountStore() {
+        this(64);
+    }
+
+    public ConcurrentAccountStore(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;  // 2의 거듭제곱
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public void openAccount(String id, String name, int balance) {
+        if (balance < 0) {
+            throw new IllegalArgumentException("초기 잔액은 0 이상이어야 합니다: " + balance);
+        }
+        if (accounts.putIfAbsent(id, new Account(name, balance)) != null) {
+            throw new IllegalArgumentException("이미 있는 계좌: " + id);
+        }
+    }
+
+    public int getBalance(String id) {
+        Account account = account(id);
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            return account.balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int deposit(String id, int amount) {
+        checkAmount(amount);
+        Account account = account(id);
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            account.balance = addBalance(account.balance, amount);
+            return account.balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 확인과 차감을 같은 락 안에서 → 잔액이 음수가 되지 않음
+    public int withdraw(String id, int amount) {
+        checkAmount(amount);
+        Account account = account(id);
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            if (account.balance < amount) {
+                throw new InsufficientBalanceException(account.balance, amount);
+            }
+            account.balance -= amount;
+            return account.balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 이체 - 두 계좌를 한 번에 (중간 상태가 보이지 않음)
+    public void transfer(String fromId, String toId, int amount) {
+        checkAmount(amount);
+        if (fromId.equals(toId)) {
+            throw new IllegalArgumentException("같은 계좌로 이체할 수 없습니다: " + fromId);
+        }
+        Account from = account(fromId);
+        Account to = account(toId);
+
+        int a = stripeIndex(fromId);
+        int b = stripeIndex(toId);
+        ReentrantLock first = stripes[Math.min(a, b)];   // 항상 작은 번호부터
+        ReentrantLock second = stripes[Math.max(a, b)];
+        first.lock();
+        try {
+            if (second != first) second.lock();  // 같은 락이면 한 번만
+            try {
+                if (from.balance < amount) {
+                    throw new InsufficientBalanceException(from.balance, amount);
+                }
+                int credited = addBalance(to.balance, amount);  // 넘치면 두 계좌 모두 그대로
+                from.balance -= amount;
+                to.balance = credited;
+            } finally {
+                if (second != first) second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    // 전체 잔액 합계 - 모든 락을 순서대로 잡아 일관된 값 (점검용)
+    public long totalBalance() {
+        for (ReentrantLock lock : stripes) lock.lock();
+        try {
+            long total = 0;
+            for (Account account : accounts.values()) {
+                total += account.balance;
+            }
+            return total;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) stripes[i].unlock();
+        }
+    }
+
+    public User getUser(String id) {
+        Account account = account(id);
+        return new User(id, account.name, getBalance(id));
+    }
+
+    private Account account(String id) {
+        Account account = accounts.get(id);
+        if (account == null) {
+            throw new InvalidUserException("없는 계좌입니다", id);
+        }
+        return account;
+    }
+
+    private ReentrantLock stripeOf(String id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    private int stripeIndex(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // int 범위를 넘는 입금은 거부 (그대로 더하면 음수 잔액이 됨)
+    private static int addBalance(int balance, int amount) {
+        if (balance > Integer.MAX_VALUE - amount) {
+            throw new IllegalStateException("잔액 한도를 넘습니다: 잔액=" + balance + ", 입금=" + amount);
+        }
+        return balance + amount;
+    }
+
+    private static void checkAmount(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("금액은 0보다 커야 합니다: " + amount);
+        }
+    }
+
+    private static class Account {
+        final String name;
+        int balance;  // 항상 해당 스트라이프 락 안에서만 접근
+
+        Account(String name, int balance) {
+            this.name = name;
+            this.balance = balance;
+        }
+    }
+
+    // === 경합 벤치마크 ===
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== 동시 출금 - User.withdraw() (동기화 없음) ===");
+        User user = new User("user1", "홍길동", 10000);
+        int[] success = new int[1];
+        Thread[] racers = new Thread[8];
+        for (int t = 0; t < racers.length; t++) {
+            racers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    try {
+                        user.withdraw(10);
+                        synchronized (success) { success[0]++; }
+                    } catch (InsufficientBalanceException ignored) {
+                    }
+                }
+            });
+            racers[t].start();
+        }
+        for (Thread racer : racers) racer.join();
+        System.out.println("성공한 출금: " + success[0] + "회 x 10원, 남은 잔액: " + user.getBalance()
+            + " (10000 - 성공액과 다르면 경쟁 상태)");
+
+        // 계좌를 적게 두어 같은 계좌(전역 락이면 같은 락)에 스레드가 몰리게 함
+        // - 계좌 수가 많고 스레드가 적으면 전역 락도 거의 경합이 없어 차이가 드러나지 않음
+        int accountCount = 64;
+        String[] ids = new String[accountCount];  // 측정 중 문자열 생성 비용이 섞이지 않도록 미리 만듦
+        for (int i = 0; i < accountCount; i++) {
+            ids[i] = "acc" + i;
+        }
+        int opening = 100_000_000;
+
+        // JIT 준비 - 첫 측정이 인터프리터 속도로 나오지 않도록 한 번 돌리고 버림
+        for (int stripeCount : new int[]{256, 1}) {
+            run(newStore(stripeCount, ids, opening), 8, ids, 300, new AtomicLong());
+        }
+
+        // 코어가 1개면 한 번에 한 스레드만 돌아 락 경합 자체가 거의 없음 → 차이는 코어가 여러 개일 때 보임
+        System.out.println("\n=== 스트라이프 락 vs 전역 락 (코어 " + Runtime.getRuntime().availableProcessors()
+            + "개, 계좌 " + accountCount + "개, 출금 50%, 이체 50%) ===");
+        System.out.printf("%7s %15s %15s%n", "threads", "striped ops/s", "global ops/s");
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64, 128}) {
+            ConcurrentAccountStore striped = newStore(256, ids, opening);
+            ConcurrentAccountStore global = newStore(1, ids, opening);  // 락 1개 = 전역 락
+            AtomicLong withdrawn = new AtomicLong();
+            long stripedOps = run(striped, threads, ids, 500, withdrawn);
+            long globalOps = run(global, threads, ids, 500, new AtomicLong());
+            System.out.printf("%7d %15d %15d%n", threads, stripedOps, globalOps);
+
+            // 이체는 합계를 바꾸지 않으므로 (잔액 합계 + 출금 합계)는 처음 합계와 같아야 함
+            if (striped.totalBalance() + withdrawn.get() != (long) accountCount * opening) {
+                System.out.println("잔액 합계 불일치!");
+            }
+        }
+    }
+
+    private static ConcurrentAccountStore newStore(int stripeCount, String[] ids, int opening) {
+        ConcurrentAccountStore store = new ConcurrentAccountStore(stripeCount);
+        for (int i = 0; i < ids.length; i++) {
+            store.openAccount(ids[i], "사용자" + i, opening);
+        }
+        return store;
+    }
+
+    // millis 동안 실행한 초당 연산 수
+    private static long run(ConcurrentAccountStore store, int threadCount, String[] ids, long millis,
+            AtomicLong withdrawn) throws InterruptedException {
+        AtomicLong ops = new AtomicLong();
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                long localWithdrawn = 0;  // 공유 카운터는 끝날 때 한 번만 갱신 (측정 대상 밖의 경합 제거)
+                while (System.nanoTime() < deadline) {
+                    String from = ids[random.nextInt(ids.length)];
+                    int amount = 1 + random.nextInt(100);
+                    try {
+                        if (random.nextBoolean()) {
+                            store.withdraw(from, amount);
+                            localWithdrawn += amount;
+                        } else {
+                            String to = ids[random.nextInt(ids.length)];
+                            if (to != from) store.transfer(from, to, amount);
+                        }
+                    } catch (InsufficientBalanceException ignored) {
+                    }
+                    local++;
+                }
+                ops.addAndGet(local);
+                withdrawn.addAndGet(localWithdrawn);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        return ops.get() * 1000 / millis;
+    }
+}
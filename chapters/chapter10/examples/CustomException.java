@@ -1,7 +1,7 @@
 /**
  * Chapter 11 - 사용자 정의 예외
  *
- * 실행: javac CustomException.java && java CustomException
+ * 실행: javac CustomException.java ValidationResult.java && java CustomException
  */
 
 // 사용자 정의 예외 클래스
@@ -21,6 +21,25 @@ class InvalidUserException extends RuntimeException {
         super(message, cause);
     }
 
+    // writableStackTrace=false → 스택 트레이스를 채우지 않음 (던지는 비용이 훨씬 적음)
+    protected InvalidUserException(String message, String userId, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.userId = userId;
+    }
+
+    // 검증 실패가 흔한 경로용 - 스택 트레이스 없는 예외
+    public static InvalidUserException stackless(String message, String userId) {
+        return new InvalidUserException(message, userId, false);
+    }
+
+    // 미리 만들어 둔 공유 예외 (스택 트레이스/suppressed 없음 → 변경 불가라 스레드 간 공유 가능)
+    // 던질 때 할당이 전혀 없지만 어떤 사용자인지는 알 수 없음 - 종류만 필요한 경로용
+    private static final InvalidUserException PREALLOCATED = new InvalidUserException("유효하지 않은 사용자", null, false);
+
+    public static InvalidUserException preallocated() {
+        return PREALLOCATED;
+    }
+
     public String getUserId() {
         return userId;
     }
@@ -37,6 +56,30 @@ class InsufficientBalanceException extends RuntimeException {
         this.amount = amount;
     }
 
+    protected InsufficientBalanceException(int balance, int amount, boolean writableStackTrace) {
+        super("잔액 부족: 잔액=" + balance + ", 요청=" + amount, null, false, writableStackTrace);
+        this.balance = balance;
+        this.amount = amount;
+    }
+
+    // 출금 거절이 흔한 경로용 - 스택 트레이스 없는 예외
+    public static InsufficientBalanceException stackless(int balance, int amount) {
+        return new InsufficientBalanceException(balance, amount, false);
+    }
+
+    // 미리 만들어 둔 공유 예외 (잔액/요청 금액은 -1 = 알 수 없음)
+    private static final InsufficientBalanceException PREALLOCATED = new InsufficientBalanceException();
+
+    private InsufficientBalanceException() {
+        super("잔액 부족", null, false, false);
+        this.balance = -1;
+        this.amount = -1;
+    }
+
+    public static InsufficientBalanceException preallocated() {
+        return PREALLOCATED;
+    }
+
     public int getBalance() {
         return balance;
     }
@@ -68,6 +111,15 @@ class User {
         }
         balance -= amount;
     }
+
+    // 예외 없이 결과로 반환 (실패가 흔한 경로용)
+    public boolean tryWithdraw(int amount) {
+        if (amount > balance) {
+            return false;
+        }
+        balance -= amount;
+        return true;
+    }
 }
 
 // 메인 클래스
@@ -104,18 +156,50 @@ public class CustomException {
             System.out.println("요청 금액: " + e.getAmount());
         }
 
+        // === 예외 대신 결과 반환 ===
+        System.out.println("\n=== 결과 반환 방식 ===");
+        ValidationResult result = checkUser(new User("", "이름없음", 0));
+        if (!result.isValid()) {
+            System.out.println("검증 실패: " + result.getMessage() + " (ID: '" + result.getUserId() + "')");
+        }
+        if (!user.tryWithdraw(10000)) {
+            System.out.println("출금 거절. 잔액: " + user.getBalance());
+        }
+
         System.out.println("\n=== 프로그램 정상 종료 ===");
     }
 
+    // 검증 규칙은 checkUser 한 곳에만 두고, 예외가 필요하면 결과를 예외로 변환
     static void validateUser(User user) {
+        checkUser(user).throwIfInvalid();
+    }
+
+    // 검증 규칙 메시지 - checkUser와 BatchUserValidator가 함께 사용
+    static final String NULL_USER_MESSAGE = "사용자가 null입니다";
+    static final String ID_EMPTY_MESSAGE = "사용자 ID가 없습니다";
+    static final String NAME_EMPTY_MESSAGE = "사용자 이름이 없습니다";
+
+    private static final ValidationResult NULL_USER = ValidationResult.invalid(NULL_USER_MESSAGE, null);
+
+    // 예외를 던지지 않고 결과로 반환하는 검증
+    static ValidationResult checkUser(User user) {
         if (user == null) {
-            throw new InvalidUserException("사용자가 null입니다");
+            return NULL_USER;  // 사용자 정보가 없는 실패는 미리 만든 결과 재사용
         }
-        if (user.getId() == null || user.getId().isEmpty()) {
-            throw new InvalidUserException("사용자 ID가 없습니다", user.getId());
+        if (isIdEmpty(user)) {
+            return ValidationResult.invalid(ID_EMPTY_MESSAGE, user.getId());
         }
-        if (user.getName() == null || user.getName().isEmpty()) {
-            throw new InvalidUserException("사용자 이름이 없습니다", user.getId());
+        if (isNameEmpty(user)) {
+            return ValidationResult.invalid(NAME_EMPTY_MESSAGE, user.getId());
         }
+        return ValidationResult.valid();
+    }
+
+    static boolean isIdEmpty(User user) {
+        return user.getId() == null || user.getId().isEmpty();
+    }
+
+    static boolean isNameEmpty(User user) {
+        return user.getName() == null || user.getName().isEmpty();
     }
 }
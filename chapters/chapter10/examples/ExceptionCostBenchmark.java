@@ -0,0 +1,122 @@
+/**
+ * Chapter 11 - 예외 던지기 vs 결과 반환 비용 비교
+ *
+ * 스택 깊이가 깊을수록 스택 트레이스를 채우는 비용이 커짐
+ * - 일반 예외: fillInStackTrace()로 호출 스택 전체 기록
+ * - 스택 없는 예외: writableStackTrace=false
+ * - 미리 만든 예외: 공유 인스턴스를 던져 할당도 없음 (상세 정보 없음)
+ * - 결과 반환: ValidationResult / tryWithdraw()
+ *
+ * 실행: javac CustomException.java ValidationResult.java ExceptionCostBenchmark.java && java ExceptionCostBenchmark [스택깊이]
+ */
+public class ExceptionCostBenchmark {
+
+    private static final int ITERATIONS = 200_000;
+    private static final User INVALID = new User("", "이름없음", 0);
+
+    static volatile int sink;  // 결과를 버리지 않게 해서 JIT가 없애지 못하게 함
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        System.out.println("스택 깊이: " + depth + ", 반복: " + ITERATIONS);
+
+        for (int round = 1; round <= 3; round++) {  // 1~2회차는 워밍업
+            long full = measure(() -> atDepth(depth, ExceptionCostBenchmark::throwFull));
+            long stackless = measure(() -> atDepth(depth, ExceptionCostBenchmark::throwStackless));
+            long preallocated = measure(() -> atDepth(depth, ExceptionCostBenchmark::throwPreallocated));
+            long result = measure(() -> atDepth(depth, ExceptionCostBenchmark::returnResult));
+            long withdrawThrow = measure(() -> atDepth(depth, ExceptionCostBenchmark::withdrawThrow));
+            long withdrawPreallocated = measure(() -> atDepth(depth, ExceptionCostBenchmark::withdrawPreallocated));
+            long withdrawTry = measure(() -> atDepth(depth, ExceptionCostBenchmark::withdrawTry));
+
+            if (round == 3) {
+                System.out.printf("%-28s %8d ns/op%n", "검증: 예외 (스택 있음)", full);
+                System.out.printf("%-28s %8d ns/op%n", "검증: 예외 (스택 없음)", stackless);
+                System.out.printf("%-28s %8d ns/op%n", "검증: 예외 (미리 생성)", preallocated);
+                System.out.printf("%-28s %8d ns/op%n", "검증: ValidationResult", result);
+                System.out.printf("%-28s %8d ns/op%n", "출금: withdraw() 예외", withdrawThrow);
+                System.out.printf("%-28s %8d ns/op%n", "출금: 예외 (미리 생성)", withdrawPreallocated);
+                System.out.printf("%-28s %8d ns/op%n", "출금: tryWithdraw()", withdrawTry);
+            }
+        }
+    }
+
+    private static int throwFull() {
+        try {
+            CustomException.validateUser(INVALID);
+            return 0;
+        } catch (InvalidUserException e) {
+            return e.getMessage().length();
+        }
+    }
+
+    private static int throwStackless() {
+        try {
+            ValidationResult result = CustomException.checkUser(INVALID);
+            if (!result.isValid()) {
+                throw InvalidUserException.stackless(result.getMessage(), result.getUserId());
+            }
+            return 0;
+        } catch (InvalidUserException e) {
+            return e.getMessage().length();
+        }
+    }
+
+    private static int throwPreallocated() {
+        try {
+            if (!CustomException.checkUser(INVALID).isValid()) {
+                throw InvalidUserException.preallocated();
+            }
+            return 0;
+        } catch (InvalidUserException e) {
+            return e.getMessage().length();
+        }
+    }
+
+    private static int returnResult() {
+        ValidationResult result = CustomException.checkUser(INVALID);
+        return result.isValid() ? 0 : result.getMessage().length();
+    }
+
+    private static int withdrawThrow() {
+        User user = new User("user1", "홍길동", 100);
+        try {
+            user.withdraw(1000);
+            return 0;
+        } catch (InsufficientBalanceException e) {
+            return e.getAmount();
+        }
+    }
+
+    private static int withdrawPreallocated() {
+        User user = new User("user1", "홍길동", 100);
+        try {
+            if (!user.tryWithdraw(1000)) {
+                throw InsufficientBalanceException.preallocated();
+            }
+            return 0;
+        } catch (InsufficientBalanceException e) {
+            return 1000;
+        }
+    }
+
+    private static int withdrawTry() {
+        User user = new User("user1", "홍길동", 100);
+        return user.tryWithdraw(1000) ? 0 : 1000;
+    }
+
+    // 실제 서비스처럼 호출 스택이 깊은 곳에서 실행
+    private static int atDepth(int depth, java.util.function.IntSupplier body) {
+        return depth == 0 ? body.getAsInt() : atDepth(depth - 1, body) + 1;
+    }
+
+    private static long measure(java.util.function.IntSupplier op) {
+        long start = System.nanoTime();
+        int acc = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            acc += op.getAsInt();
+        }
+        sink = acc;
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Chapter 11 - 검증 결과 (예외 대신 값으로 반환)
+ *
+ * 실패가 자주 일어나는 검증에서 예외를 던지면 매번 스택 트레이스를 만드는 비용이 큼
+ * 성공 / 실패를 값으로 돌려주고, 호출한 쪽에서 분기
+ * - 성공 결과는 하나만 만들어두고 재사용 (할당 없음)
+ * - 예외가 필요한 곳에서는 throwIfInvalid()로 기존 InvalidUserException 사용
+ */
+public final class ValidationResult {
+
+    private static final ValidationResult VALID = new ValidationResult(null, null);
+
+    private final String message;
+    private final String userId;
+
+    private ValidationResult(String message, String userId) {
+        this.message = message;
+        this.userId = userId;
+    }
+
+    public static ValidationResult valid() {
+        return VALID;
+    }
+
+    public static ValidationResult invalid(String message, String userId) {
+        if (message == null) {
+            throw new IllegalArgumentException("실패 사유가 필요합니다");
+        }
+        return new ValidationResult(message, userId);
+    }
+
+    public boolean isValid() {
+        return message == null;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    // 실패면 기존 예외로 변환
+    public void throwIfInvalid() {
+        if (!isValid()) {
+            throw new InvalidUserException(message, userId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ValidationResult{valid}" : "ValidationResult{invalid: " + message + ", userId=" + userId + "}";
+    }
+}
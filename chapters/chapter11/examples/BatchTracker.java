@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 작업 묶음 완료 추적기 (Phaser 기반)
+// - Thread.sleep()으로 대충 기다리지 않고, 제출한 작업이 실제로 끝나는 순간을 정확히 알 수 있음
+// - drain(): 신규 작업을 막고, 진행 중인 작업을 기한까지 기다린 뒤 끝나지 않은 작업을 보고
+//   (실행 중이던 작업과 큐에서 시작도 못 한 작업을 나눠서 보고)
+//
+// Phaser 하나에 등록 가능한 작업 수는 65535개까지
+public class BatchTracker {
+
+    private final ExecutorService executor;
+    private final Phaser phaser = new Phaser(1);  // 1 = 대기하는 쪽(추적기 자신)
+    private final Map<Long, Task> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private volatile boolean closed;
+    private int waitingPhase = -1;  // 타임아웃된 대기가 있으면 그 단계 번호
+
+    public BatchTracker(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    // 작업 제출 - 끝나면 자동으로 완료 처리
+    public void execute(String name, Runnable task) {
+        if (closed) {
+            throw new RejectedExecutionException("종료 중이라 작업을 받을 수 없습니다: " + name);
+        }
+        Task tracked = new Task(ids.incrementAndGet(), name, task);
+        phaser.register();
+        inFlight.put(tracked.id, tracked);
+        try {
+            executor.execute(tracked);
+        } catch (RejectedExecutionException e) {
+            tracked.finish();
+            throw e;
+        }
+    }
+
+    // 제출된 작업 - 시작할 때 started를 먼저 차지 (drain이 시작 전 작업을 회수할 때와 경쟁)
+    private final class Task implements Runnable {
+        final long id;
+        final String name;
+        final Runnable body;
+        final AtomicBoolean started = new AtomicBoolean();
+
+        Task(long id, String name, Runnable body) {
+            this.id = id;
+            this.name = name;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;  // drain에서 이미 회수됨
+            }
+            try {
+                body.run();
+            } finally {
+                finish();
+            }
+        }
+
+        void finish() {
+            inFlight.remove(id);
+            phaser.arriveAndDeregister();
+        }
+    }
+
+    // 지금까지 제출된 작업이 모두 끝날 때까지 대기 (기한 내 완료 시 true)
+    public synchronized boolean awaitBatch(long timeout, TimeUnit unit) throws InterruptedException {
+        int phase;
+        if (waitingPhase >= 0 && phaser.getPhase() == waitingPhase) {
+            phase = waitingPhase;  // 이전 대기가 타임아웃 → 이미 도착 처리했으므로 다시 도착하지 않음
+        } else {
+            phase = phaser.arrive();
+        }
+        try {
+            phaser.awaitAdvanceInterruptibly(phase, timeout, unit);
+            waitingPhase = -1;
+            return true;
+        } catch (TimeoutException e) {
+            waitingPhase = phase;
+            return false;
+        }
+    }
+
+    // 진행 중인 작업 수
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    // 정상 종료: 신규 작업 거부 → 기한까지 대기 → 남은 작업 보고 후 강제 종료
+    public DrainReport drain(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        long start = System.nanoTime();
+        executor.shutdown();
+
+        boolean completed = awaitBatch(timeout, unit);
+        List<String> stragglers = new ArrayList<>();
+        List<String> neverStarted = new ArrayList<>();
+        if (!completed) {
+            // 인터럽트하면 곧바로 끝나는 작업이 있으므로 먼저 목록을 떠 둠
+            List<Task> unfinished = new ArrayList<>(inFlight.values());
+            executor.shutdownNow();  // 실행 중인 작업에 인터럽트, 큐에 남은 작업은 버려짐
+            // 버려진 작업은 끝날 일이 없으므로 여기서 완료 처리
+            // (shutdownNow가 돌려주지 않는 실행기도 있어서 추적 중인 작업 기준으로 회수)
+            for (Task task : unfinished) {
+                if (task.started.compareAndSet(false, true)) {
+                    neverStarted.add(task.name);
+                    task.finish();
+                } else {
+                    stragglers.add(task.name);
+                }
+            }
+        }
+        long remaining = unit.toNanos(timeout) - (System.nanoTime() - start);
+        executor.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+
+        return new DrainReport(completed, (System.nanoTime() - start) / 1_000_000, stragglers, neverStarted);
+    }
+
+    // 종료 결과
+    public static class DrainReport {
+        private final boolean completed;
+        private final long elapsedMillis;
+        private final List<String> stragglers;
+        private final List<String> neverStarted;
+
+        public DrainReport(boolean completed, long elapsedMillis, List<String> stragglers, List<String> neverStarted) {
+            this.completed = completed;
+            this.elapsedMillis = elapsedMillis;
+            this.stragglers = stragglers;
+            this.neverStarted = neverStarted;
+        }
+
+        public boolean isCompleted() { return completed; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        // 기한까지 실행 중이던 작업 (인터럽트됨)
+        public List<String> getStragglers() { return stragglers; }
+        // 큐에서 기다리다 시작도 못 한 작업
+        public List<String> getNeverStarted() { return neverStarted; }
+
+        @Override
+        public String toString() {
+            return completed
+                ? "모든 작업 완료 (" + elapsedMillis + "ms)"
+                : "기한 초과 (" + elapsedMillis + "ms), 미완료 작업: " + stragglers + ", 시작 못 한 작업: " + neverStarted;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+// CompletableFuture 기반 팬아웃/팬인 파이프라인
+// - 동시 실행 개수 제한 (대기 작업은 큐에 쌓였다가 자리가 나면 시작)
+// - 작업별 타임아웃
+// - 완료 순서대로 콜백 호출 (먼저 끝난 결과부터 바로 처리)
+// - allOf / anyOf 집계 (호출한 쪽이 가진 future 목록 기준 - 파이프라인은 끝난 작업을 들고 있지 않음)
+public class CompletionPipeline<T> {
+
+    private final Executor executor;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final List<BiConsumer<? super T, ? super Throwable>> listeners = new CopyOnWriteArrayList<>();
+
+    public CompletionPipeline(Executor executor, int maxConcurrency, long timeoutMillis) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency는 1 이상이어야 합니다: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // 완료 순서대로 호출될 콜백 등록 (submit 전에 등록)
+    public CompletionPipeline<T> onComplete(BiConsumer<? super T, ? super Throwable> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    // 작업 제출 - 블로킹 없이 바로 CompletableFuture 반환
+    public CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete(this::notifyListeners);
+        pending.add(() -> start(task, result));
+        drain();
+        return result;
+    }
+
+    // 모든 작업 결과 (목록 순서, 하나라도 실패하면 실패)
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        List<CompletableFuture<T>> snapshot = new ArrayList<>(futures);
+        return CompletableFuture.allOf(snapshot.toArray(new CompletableFuture<?>[0]))
+            .thenApply(v -> {
+                List<T> results = new ArrayList<>(snapshot.size());
+                for (CompletableFuture<T> future : snapshot) {
+                    results.add(future.join());
+                }
+                return results;
+            });
+    }
+
+    // 가장 먼저 성공한 결과 (모두 실패하면 마지막 예외로 실패)
+    public static <T> CompletableFuture<T> anyOf(List<CompletableFuture<T>> futures) {
+        List<CompletableFuture<T>> snapshot = new ArrayList<>(futures);
+        CompletableFuture<T> first = new CompletableFuture<>();
+        if (snapshot.isEmpty()) {
+            first.completeExceptionally(new NoSuchElementException("제출된 작업이 없습니다"));
+            return first;
+        }
+        CountDownLatch failures = new CountDownLatch(snapshot.size());
+        for (CompletableFuture<T> future : snapshot) {
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    first.complete(value);
+                } else {
+                    failures.countDown();
+                    if (failures.getCount() == 0) {
+                        first.completeExceptionally(error);
+                    }
+                }
+            });
+        }
+        return first;
+    }
+
+    // 허용 개수만큼 대기 작업 시작
+    private void drain() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            Runnable next = pending.poll();
+            if (next == null) {
+                permits.release();
+                break;
+            }
+            next.run();
+        }
+    }
+
+    private void start(Callable<T> task, CompletableFuture<T> result) {
+        CompletableFuture
+            .supplyAsync(() -> {
+                if (timeoutMillis > 0) {
+                    // 실행 스레드가 작업을 시작할 때 타임아웃 시작 (executor 큐 대기 시간은 제외)
+                    result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    return task.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor)
+            .whenComplete((value, error) -> {
+                // 작업이 실제로 끝나야 자리를 반납 (타임아웃 후에도 스레드는 점유 중이므로)
+                permits.release();
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                }
+                drain();
+            });
+    }
+
+    private void notifyListeners(T value, Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        for (BiConsumer<? super T, ? super Throwable> listener : listeners) {
+            listener.accept(value, cause);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+// Counter 구현체 벤치마크 - 스레드 수별 처리량 / p99 지연 / 할당률
+//
+// 실행: javac SynchronizedExample.java CounterBenchmark.java && java CounterBenchmark [측정ms]
+public class CounterBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final int SAMPLE_EVERY = 64;       // 64번에 한 번 지연 시간 측정
+    private static final int MAX_SAMPLES = 1 << 16;   // 스레드당 샘플 버퍼 크기 (미리 할당)
+
+    private static volatile boolean running;
+
+    public static void main(String[] args) throws InterruptedException {
+        long measureMillis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long warmupMillis = measureMillis / 2;
+
+        List<Supplier<Counter>> counters = List.of(
+            UnsafeCounter::new,
+            SafeCounter::new,
+            AtomicCounter::new,
+            StripedCounter::new,
+            BufferedCounter::new
+        );
+
+        System.out.printf("%-16s %7s %15s %10s %12s%n", "counter", "threads", "ops/sec", "p99(ns)", "alloc(B/op)");
+        for (Supplier<Counter> factory : counters) {
+            for (int threadCount : THREAD_COUNTS) {
+                run(factory.get(), threadCount, warmupMillis);  // 워밍업 (JIT 컴파일)
+                Result result = run(factory.get(), threadCount, measureMillis);
+                System.out.printf("%-16s %7d %15d %10d %12.3f%n",
+                    result.name, threadCount, result.opsPerSec, result.p99Nanos, result.bytesPerOp);
+            }
+        }
+    }
+
+    private static Result run(Counter counter, int threadCount, long millis) throws InterruptedException {
+        long[] ops = new long[threadCount];
+        long[] allocated = new long[threadCount];
+        long[][] samples = new long[threadCount][MAX_SAMPLES];
+        int[] sampleCounts = new int[threadCount];
+
+        CountDownLatch ready = new CountDownLatch(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                com.sun.management.ThreadMXBean mx =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long[] mySamples = samples[index];
+                long count = 0;
+                int sampleCount = 0;
+
+                ready.countDown();
+                await(start);
+                long bytesBefore = mx.getCurrentThreadAllocatedBytes();
+
+                while (running) {
+                    if ((count & (SAMPLE_EVERY - 1)) == 0 && sampleCount < MAX_SAMPLES) {
+                        long begin = System.nanoTime();
+                        counter.increment();
+                        mySamples[sampleCount++] = System.nanoTime() - begin;
+                    } else {
+                        counter.increment();
+                    }
+                    count++;
+                }
+
+                allocated[index] = mx.getCurrentThreadAllocatedBytes() - bytesBefore;
+                ops[index] = count;
+                sampleCounts[index] = sampleCount;
+            });
+            threads[t].start();
+        }
+
+        ready.await();
+        running = true;
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        running = false;
+        for (Thread thread : threads) thread.join();
+        long elapsed = System.nanoTime() - begin;
+
+        long totalOps = Arrays.stream(ops).sum();
+        long totalBytes = Arrays.stream(allocated).sum();
+        return new Result(
+            counter.getClass().getSimpleName(),
+            totalOps * 1_000_000_000L / elapsed,
+            percentile(samples, sampleCounts, 0.99),
+            totalOps == 0 ? 0 : (double) totalBytes / totalOps
+        );
+    }
+
+    private static long percentile(long[][] samples, int[] counts, double p) {
+        int total = Arrays.stream(counts).sum();
+        if (total == 0) return 0;
+        long[] merged = new long[total];
+        int pos = 0;
+        for (int t = 0; t < samples.length; t++) {
+            System.arraycopy(samples[t], 0, merged, pos, counts[t]);
+            pos += counts[t];
+        }
+        Arrays.sort(merged);
+        return merged[(int) Math.min(total - 1, Math.ceil(p * total) - 1)];
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Result {
+        final String name;
+        final long opsPerSec;
+        final long p99Nanos;
+        final double bytesPerOp;
+
+        Result(String name, long opsPerSec, long p99Nanos, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSec = opsPerSec;
+            this.p99Nanos = p99Nanos;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+}
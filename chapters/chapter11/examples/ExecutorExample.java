@@ -1,53 +1,130 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
 
 // 스레드 풀 (ExecutorService) 예제
+//
+// 실행: javac ExecutorStrategy.java CompletionPipeline.java BatchTracker.java ExecutorExample.java && java ExecutorExample [fixed|forkjoin|virtual|all] [작업수]
 public class ExecutorExample {
 
+    private static final int POOL_SIZE = 3;
+
     public static void main(String[] args) throws Exception {
-        // 1. 고정 크기 스레드 풀 생성
-        ExecutorService executor = Executors.newFixedThreadPool(3);
-        System.out.println("=== 스레드 풀 생성 (크기: 3) ===\n");
+        String option = args.length > 0 ? args[0] : "fixed";
+        int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<ExecutorStrategy> strategies = option.equalsIgnoreCase("all")
+            ? List.of(ExecutorStrategy.values())
+            : List.of(ExecutorStrategy.from(option));
+
+        // 1. 스레드 풀 생성 (전략은 커맨드 라인으로 선택)
+        ExecutorStrategy first = strategies.get(0);
+        ExecutorService executor = first.create(POOL_SIZE);
+        BatchTracker tracker = new BatchTracker(executor);
+        System.out.println("=== 스레드 풀 생성 (" + first.getOption() + ", 크기: " + POOL_SIZE + ") ===\n");
 
         // 2. Runnable 작업 제출 (리턴값 없음)
         System.out.println("--- Runnable 작업 ---");
         for (int i = 1; i <= 5; i++) {
             int taskId = i;
-            executor.execute(() -> {
+            tracker.execute("작업 " + taskId, () -> {
                 System.out.println("작업 " + taskId + " 실행 중 - " + Thread.currentThread().getName());
                 sleep(500);
             });
         }
 
-        Thread.sleep(3000);  // 작업 완료 대기
+        // 작업 완료 대기 - 고정 시간 sleep 대신 실제로 끝나는 순간까지만 대기
+        long waitStart = System.nanoTime();
+        tracker.awaitBatch(5, TimeUnit.SECONDS);
+        System.out.println("Runnable 묶음 완료 (" + (System.nanoTime() - waitStart) / 1_000_000 + "ms 대기)");
 
-        // 3. Callable 작업 제출 (리턴값 있음)
-        System.out.println("\n--- Callable 작업 ---");
-        List<Future<String>> futures = new ArrayList<>();
+        // 3. Callable 작업 제출 (리턴값 있음) - 완료 순서대로 처리
+        System.out.println("\n--- Callable 작업 (완료 순서대로) ---");
+        CompletionPipeline<String> pipeline = new CompletionPipeline<String>(executor, POOL_SIZE, 2000)
+            .onComplete((result, error) -> {
+                // 먼저 끝난 작업부터 바로 처리 (느린 작업을 기다리지 않음)
+                System.out.println(error == null ? result : "실패: " + error);
+            });
 
+        List<CompletableFuture<String>> results = new ArrayList<>();
         for (int i = 1; i <= 3; i++) {
             int taskId = i;
-            Future<String> future = executor.submit(() -> {
-                sleep(1000);
+            results.add(pipeline.submit(() -> {
+                sleep(1500 - taskId * 400);  // 늦게 제출한 작업이 먼저 끝남
                 return "작업 " + taskId + " 완료!";
-            });
-            futures.add(future);
+            }));
         }
 
-        // 결과 수집
-        for (Future<String> future : futures) {
-            String result = future.get();  // 블로킹: 결과 올 때까지 대기
-            System.out.println(result);
-        }
+        System.out.println("가장 먼저 끝난 결과: " + CompletionPipeline.anyOf(results).get());
+        System.out.println("전체 결과 (제출 순서): " + CompletionPipeline.allOf(results).get());
 
-        // 4. 스레드 풀 종료
+        // 타임아웃 - 제한 시간 안에 끝나지 않으면 TimeoutException으로 실패
+        CompletionPipeline<String> timeoutPipeline = new CompletionPipeline<>(executor, POOL_SIZE, 300);
+        CompletableFuture<String> slow = timeoutPipeline.submit(() -> {
+            sleep(1000);
+            return "느린 작업 완료!";
+        });
+        System.out.println("느린 작업: " + slow.exceptionally(e -> "타임아웃 (" + e.getClass().getSimpleName() + ")").get());
+
+        // 4. 스레드 풀 종료 - 신규 작업 거부, 진행 중인 작업은 기한까지 대기
         System.out.println("\n--- 스레드 풀 종료 ---");
-        executor.shutdown();  // 새 작업 거부, 기존 작업 완료 후 종료
+        System.out.println(tracker.drain(5, TimeUnit.SECONDS));
+
+        // 기한 안에 끝나지 않는 작업이 있으면 보고 후 강제 종료
+        BatchTracker slowTracker = new BatchTracker(first.create(POOL_SIZE));
+        slowTracker.execute("빠른 작업", () -> sleep(100));
+        for (int i = 1; i <= POOL_SIZE; i++) {
+            slowTracker.execute("느린 작업 " + i, () -> sleep(3000));  // 풀을 모두 차지
+        }
+        slowTracker.execute("대기 작업", () -> sleep(100));  // 자리가 나지 않아 시작 못 함
+        System.out.println(slowTracker.drain(500, TimeUnit.MILLISECONDS));
+
+        // 5. 전략별 비교 - 같은 블로킹 작업 묶음을 각 전략으로 실행
+        System.out.println("\n=== 전략별 비교 (작업 " + taskCount + "개, 작업당 100ms 블로킹) ===");
+        for (ExecutorStrategy strategy : strategies) {
+            compare(strategy, taskCount);
+        }
+    }
+
+    private static void compare(ExecutorStrategy strategy, int taskCount) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();  // 플랫폼 스레드 최대치 측정 시작 (가상 스레드는 집계 안됨)
+
+        long start = System.nanoTime();
+        ExecutorService executor = strategy.create(POOL_SIZE);
 
-        if (executor.awaitTermination(5, TimeUnit.SECONDS)) {
-            System.out.println("모든 작업 완료!");
+        // Runnable 묶음
+        List<Future<?>> runnables = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            runnables.add(executor.submit(() -> sleep(100)));
         }
+        for (Future<?> future : runnables) {
+            future.get();
+        }
+
+        // Callable 묶음
+        List<Callable<Integer>> callables = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            int taskId = i;
+            callables.add(() -> {
+                sleep(100);
+                return taskId;
+            });
+        }
+        int sum = 0;
+        for (Future<Integer> future : executor.invokeAll(callables)) {
+            sum += future.get();
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(strategy.getOption() + " - 소요 시간: " + elapsedMillis + "ms"
+            + ", 최대 플랫폼 스레드: " + threads.getPeakThreadCount()
+            + ", 결과 합계: " + sum);
     }
 
     private static void sleep(int millis) {
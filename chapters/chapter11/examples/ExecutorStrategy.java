@@ -0,0 +1,60 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 실행기(Executor) 전략 - 같은 작업을 어떤 스레드 모델로 돌릴지 선택
+public enum ExecutorStrategy {
+
+    // 고정 크기 스레드 풀 - 동시에 poolSize개까지만 실행
+    FIXED("fixed") {
+        @Override
+        public ExecutorService create(int poolSize) {
+            return Executors.newFixedThreadPool(poolSize);
+        }
+    },
+
+    // 작업 훔치기(work-stealing) ForkJoinPool - CPU 작업에 적합
+    FORK_JOIN("forkjoin") {
+        @Override
+        public ExecutorService create(int poolSize) {
+            return Executors.newWorkStealingPool(poolSize);
+        }
+    },
+
+    // 작업마다 가상 스레드 1개 - 블로킹 I/O 작업에 적합 (Java 21+)
+    VIRTUAL("virtual") {
+        @Override
+        public ExecutorService create(int poolSize) {
+            try {
+                // Java 17에서도 컴파일되도록 리플렉션으로 호출
+                return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("(가상 스레드는 Java 21+ 필요 - 캐시 스레드 풀로 대체)");
+                return Executors.newCachedThreadPool();
+            }
+        }
+    };
+
+    private final String option;
+
+    ExecutorStrategy(String option) {
+        this.option = option;
+    }
+
+    public abstract ExecutorService create(int poolSize);
+
+    public String getOption() {
+        return option;
+    }
+
+    // 커맨드 라인 옵션 → 전략
+    public static ExecutorStrategy from(String option) {
+        for (ExecutorStrategy strategy : values()) {
+            if (strategy.option.equalsIgnoreCase(option) || strategy.name().equalsIgnoreCase(option)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 전략: " + option + " (fixed | forkjoin | virtual | all)");
+    }
+}
@@ -1,32 +1,52 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 // 동기화 예제 - 경쟁 상태 해결
+//
+// 실행: javac SynchronizedExample.java && java SynchronizedExample [스레드수] [반복횟수]
 public class SynchronizedExample {
 
     public static void main(String[] args) throws InterruptedException {
         // 동기화 없는 카운터 (문제 발생)
         System.out.println("=== 동기화 없음 ===");
         UnsafeCounter unsafeCounter = new UnsafeCounter();
-        runCounterTest(unsafeCounter);
+        runCounterTest(unsafeCounter, 2, 10000);
 
         // 동기화된 카운터
         System.out.println("\n=== 동기화 있음 ===");
         SafeCounter safeCounter = new SafeCounter();
-        runCounterTest(safeCounter);
+        runCounterTest(safeCounter, 2, 10000);
+
+        // 락 없는 카운터들 비교
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.println("\n=== 카운터 비교 (스레드 " + threadCount + "개, 스레드당 " + iterations + "회) ===");
+        runCounterTest(new SafeCounter(), threadCount, iterations);
+        runCounterTest(new AtomicCounter(), threadCount, iterations);
+        runCounterTest(new StripedCounter(), threadCount, iterations);
+        runCounterTest(new BufferedCounter(), threadCount, iterations);
     }
 
-    private static void runCounterTest(Counter counter) throws InterruptedException {
-        Thread t1 = new Thread(() -> {
-            for (int i = 0; i < 10000; i++) counter.increment();
-        });
-        Thread t2 = new Thread(() -> {
-            for (int i = 0; i < 10000; i++) counter.increment();
-        });
+    static void runCounterTest(Counter counter, int threadCount, int iterations) throws InterruptedException {
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < iterations; i++) counter.increment();
+            });
+        }
 
-        t1.start();
-        t2.start();
-        t1.join();  // t1 종료 대기
-        t2.join();  // t2 종료 대기
+        long start = System.nanoTime();
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();  // 모든 스레드 종료 대기
+        long elapsed = System.nanoTime() - start;
 
-        System.out.println("기대값: 20000, 실제값: " + counter.getCount());
+        long expected = (long) threadCount * iterations;
+        long opsPerSec = elapsed > 0 ? expected * 1_000_000_000L / elapsed : 0;
+        System.out.println(counter.getClass().getSimpleName()
+            + " - 기대값: " + expected + ", 실제값: " + counter.getCount()
+            + ", 처리량: " + opsPerSec + " ops/sec");
     }
 }
 
@@ -64,3 +84,96 @@ class SafeCounter implements Counter {
         return count;
     }
 }
+
+// CAS(Compare-And-Swap) 카운터 - 락 없이 원자적으로 증가
+class AtomicCounter implements Counter {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public void increment() {
+        count.incrementAndGet();  // 실패하면 재시도 (블로킹 없음)
+    }
+
+    @Override
+    public int getCount() {
+        return count.get();
+    }
+}
+
+// 스트라이프 카운터 - LongAdder 방식
+// 스레드마다 다른 칸(cell)을 증가시키고, getCount()에서 합산
+class StripedCounter implements Counter {
+    // int 16개 = 64바이트 → 칸마다 캐시 라인을 따로 쓰도록 간격을 둠 (false sharing 방지)
+    private static final int PAD = 16;
+
+    private final int mask;
+    private final AtomicIntegerArray cells;
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;  // 2의 거듭제곱
+        this.mask = size - 1;
+        this.cells = new AtomicIntegerArray(size * PAD);
+    }
+
+    @Override
+    public void increment() {
+        cells.getAndIncrement(probe() * PAD);
+    }
+
+    @Override
+    public int getCount() {
+        int sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    // 스레드 ID를 섞어서 칸 번호로 사용
+    private int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
+
+// 스레드별 버퍼 카운터 - 로컬에서 모아두었다가 일정 개수마다 한 번에 반영
+class BufferedCounter implements Counter {
+    private static final int BATCH = 1024;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Buffer> local = ThreadLocal.withInitial(() -> {
+        Buffer buffer = new Buffer();
+        buffers.add(buffer);
+        return buffer;
+    });
+
+    @Override
+    public void increment() {
+        Buffer buffer = local.get();
+        if (++buffer.pending == BATCH) {
+            total.addAndGet(BATCH);  // 공유 변수는 BATCH번에 한 번만 접근
+            buffer.pending = 0;
+        }
+    }
+
+    // 아직 반영되지 않은 버퍼 값까지 합산
+    // (작업 스레드가 join()으로 끝난 뒤에 호출해야 정확함)
+    @Override
+    public int getCount() {
+        int sum = total.get();
+        for (Buffer buffer : buffers) {
+            sum += buffer.pending;
+        }
+        return sum;
+    }
+
+    private static class Buffer {
+        int pending;
+    }
+}
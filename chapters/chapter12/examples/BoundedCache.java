@@ -0,0 +1,453 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Chapter 15 - 크기 제한이 있는 동시성 LRU 캐시
+ *
+ * HashMap을 캐시로 쓰면 키가 늘어나는 만큼 끝없이 커짐
+ * BoundedCache는 최대 가중치를 넘으면 가장 오래 안 쓴 항목부터 제거
+ * - 조회: ConcurrentHashMap에서 락 없이 읽음
+ *   LRU 순서 갱신은 tryLock으로 시도하고, 다른 스레드가 락을 잡고 있으면 건너뜀
+ *   (순서가 조금 부정확해지는 대신 읽기가 락을 기다리지 않음)
+ * - 쓰기/제거: 락 하나로 맵과 LRU 리스트를 함께 갱신
+ * - 쓰고 나서 expireAfterWrite가 지나면 만료 (조회할 때 확인)
+ * - 혼자서 최대 가중치를 넘는 값은 저장하지 않음 (넣으면 나머지 항목을 전부 밀어내고 결국 자기도 제거됨)
+ * - get(key, loader): 같은 키를 동시에 요청하면 로더는 한 번만 실행되고 나머지는 결과를 기다림
+ *
+ * 실행: javac BoundedCache.java && java BoundedCache
+ */
+public class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Node<K, V> head = new Node<>(null, null, 0, 0);  // head.next = 가장 오래 안 쓴 항목
+    private final long maxWeight;
+    private final ToIntFunction<? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private long weight;  // lock으로 보호
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    // 항목 하나의 가중치 = 1, 만료 없음
+    public BoundedCache(long maxSize) {
+        this(maxSize, value -> 1, 0, TimeUnit.MILLISECONDS);
+    }
+
+    // expireAfterWrite가 0이면 만료 없음
+    public BoundedCache(long maxWeight, ToIntFunction<? super V> weigher,
+                        long expireAfterWrite, TimeUnit unit) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("최대 가중치는 1 이상이어야 합니다: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        head.prev = head;
+        head.next = head;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        final long writtenAt;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    // === 조회 ===
+
+    public V getIfPresent(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(node)) {
+            lock.lock();
+            try {
+                if (map.remove(key, node)) {
+                    unlink(node);
+                    expirations.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (lock.tryLock()) {
+            try {
+                // 이미 제거됐거나 다른 값으로 교체된 노드는 리스트에 다시 넣지 않음
+                if (node.next != null && map.get(key) == node) {
+                    unlink(node);
+                    linkLast(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    public V getOrDefault(K key, V defaultValue) {
+        V value = getIfPresent(key);
+        return value != null ? value : defaultValue;
+    }
+
+    // 없으면 loader로 만들어서 저장. 같은 키의 동시 요청은 로더 한 번으로 합침
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            // 미스 확인과 등록 사이에 다른 스레드가 로드를 끝냈을 수 있음
+            Node<K, V> node = map.get(key);
+            value = node != null && !isExpired(node) ? node.value : null;
+            if (value == null) {
+                value = loader.apply(key);
+                loads.increment();
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    // === 쓰기 ===
+
+    public void put(K key, V value) {
+        int nodeWeight = weigher.applyAsInt(value);
+        if (nodeWeight < 0) {
+            throw new IllegalArgumentException("가중치는 0 이상이어야 합니다: " + nodeWeight);
+        }
+        Node<K, V> node = new Node<>(key, value, nodeWeight, System.nanoTime());
+        lock.lock();
+        try {
+            if (nodeWeight > maxWeight) {
+                // 저장하지 않고 바로 제거한 것으로 처리 - 이전 값이 남아 있으면 옛 값이 보이므로 함께 제거
+                Node<K, V> old = map.remove(key);
+                if (old != null) {
+                    unlink(old);
+                }
+                evictions.increment();
+                return;
+            }
+            Node<K, V> old = map.put(key, node);
+            if (old != null) {
+                unlink(old);
+            }
+            linkLast(node);
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        lock.lock();
+        try {
+            Node<K, V> node = map.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            map.clear();
+            // 노드마다 링크를 끊어야 락 없이 읽어 간 노드를 getIfPresent가 다시 연결하지 않음
+            Node<K, V> node = head.next;
+            while (node != head) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node = next;
+            }
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (weight > maxWeight && head.next != head) {
+            Node<K, V> victim = head.next;
+            map.remove(victim.key, victim);
+            unlink(victim);
+            if (isExpired(victim)) {
+                expirations.increment();
+            } else {
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean isExpired(Node<K, V> node) {
+        return expireAfterWriteNanos > 0 && System.nanoTime() - node.writtenAt >= expireAfterWriteNanos;
+    }
+
+    // === LRU 리스트 (lock 안에서만 호출) ===
+
+    private void linkLast(Node<K, V> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        weight += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        weight -= node.weight;
+    }
+
+    // === 상태 ===
+
+    public int size() {
+        return map.size();
+    }
+
+    public long weightedSize() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), expirations.sum());
+    }
+
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long evictions;
+        private final long expirations;
+
+        Stats(long hits, long misses, long loads, long evictions, long expirations) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getLoads() { return loads; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("적중률=%.1f%%, hits=%d, misses=%d, loads=%d, evictions=%d, expirations=%d",
+                hitRate() * 100, hits, misses, loads, evictions, expirations);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // === 기본 사용 ===
+        System.out.println("=== 기본 사용 (최대 3개) ===");
+        BoundedCache<String, Integer> scores = new BoundedCache<>(3);
+        scores.put("홍길동", 95);
+        scores.put("김철수", 88);
+        scores.put("이영희", 92);
+        scores.getIfPresent("홍길동");             // 홍길동을 최근 사용으로
+        scores.put("박민수", 79);                   // 가장 오래 안 쓴 김철수 제거
+        System.out.println("get(\"홍길동\"): " + scores.getIfPresent("홍길동"));
+        System.out.println("get(\"김철수\"): " + scores.getIfPresent("김철수"));
+        System.out.println("getOrDefault(\"김철수\", 0): " + scores.getOrDefault("김철수", 0));
+        System.out.println(scores.stats());
+
+        // === 만료 ===
+        System.out.println("\n=== 쓰고 50ms 뒤 만료 ===");
+        BoundedCache<String, String> sessions = new BoundedCache<>(100, value -> 1, 50, TimeUnit.MILLISECONDS);
+        sessions.put("token", "user-1");
+        System.out.println("즉시: " + sessions.getIfPresent("token"));
+        Thread.sleep(80);
+        System.out.println("80ms 뒤: " + sessions.getIfPresent("token"));
+
+        // === 동시 미스 합치기 ===
+        System.out.println("\n=== 같은 키를 16개 스레드가 동시에 요청 ===");
+        BoundedCache<String, String> profiles = new BoundedCache<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 16; i++) {
+            executor.submit(() -> {
+                start.await();
+                return profiles.get("user-1", key -> {
+                    sleep(100);  // 느린 조회
+                    return key + " 프로필";
+                });
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println(profiles.stats() + " → 로더 실행 " + profiles.stats().getLoads() + "번");
+
+        // === Zipf 분포 요청: 무제한 HashMap vs BoundedCache ===
+        int keySpace = 100_000;
+        int requests = 2_000_000;
+        int[] keys = zipf(keySpace, 0.99, requests, 42);
+        System.out.println("\n=== Zipf(0.99) 요청 " + requests + "건, 키 공간 " + keySpace + " ===");
+
+        Map<Integer, Long> unbounded = new HashMap<>();
+        long startNanos = System.nanoTime();
+        long misses = 0;
+        for (int key : keys) {
+            Long value = unbounded.get(key);
+            if (value == null) {
+                misses++;
+                unbounded.put(key, slowCompute(key));
+            }
+        }
+        System.out.printf("HashMap(무제한):        %5dms, 항목 %,8d개, 적중률 %.1f%%%n",
+            (System.nanoTime() - startNanos) / 1_000_000, unbounded.size(),
+            100.0 * (requests - misses) / requests);
+        unbounded = null;
+
+        for (int maxSize : new int[]{1_000, 5_000, 20_000}) {
+            BoundedCache<Integer, Long> cache = new BoundedCache<>(maxSize);
+            startNanos = System.nanoTime();
+            for (int key : keys) {
+                cache.get(key, BoundedCache::slowCompute);
+            }
+            System.out.printf("BoundedCache(%,7d):  %5dms, 항목 %,8d개, %s%n", maxSize,
+                (System.nanoTime() - startNanos) / 1_000_000, cache.size(), cache.stats());
+        }
+
+        // === 여러 스레드 ===
+        int threads = Runtime.getRuntime().availableProcessors();
+        BoundedCache<Integer, Long> shared = new BoundedCache<>(5_000);
+        executor = Executors.newFixedThreadPool(threads);
+        startNanos = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                for (int i = offset; i < keys.length; i += threads) {
+                    shared.get(keys[i], BoundedCache::slowCompute);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - startNanos;
+        System.out.printf("%n%d 스레드 BoundedCache(5,000): %dms, %.0f ops/sec, %s%n", threads,
+            elapsed / 1_000_000, requests / (elapsed / 1e9), shared.stats());
+    }
+
+    // 캐시 앞에 두는 느린 계산 (수 마이크로초)
+    private static Long slowCompute(int key) {
+        long x = key;
+        for (int i = 0; i < 2_000; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+
+    // 순위 k(1부터)의 확률이 1/k^s에 비례하는 요청 순서 생성 (누적 분포 + 이진 탐색)
+    private static int[] zipf(int keySpace, double s, int count, long seed) {
+        double[] cdf = new double[keySpace];
+        double sum = 0;
+        for (int k = 0; k < keySpace; k++) {
+            sum += 1 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        Random random = new Random(seed);
+        int[] keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble() * sum;
+            int low = 0;
+            int high = keySpace - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cdf[mid] < u) low = mid + 1;
+                else high = mid;
+            }
+            keys[i] = low;
+        }
+        return keys;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Chapter 15 - int 전용 해시 셋 (개방 주소법) + 집합 연산
+ *
+ * HashSet<Integer>는 내부적으로 HashMap이라 원소마다 Node + Integer 객체
+ * IntHashSet은 int[] 하나에 저장 (빈칸은 0으로 표시, 0 자체는 별도 플래그)
+ */
+public class IntHashSet {
+
+    private int[] table;
+    private boolean containsZero;
+    private int size;
+    private int threshold;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        allocate(ObjectIntMap.tableSizeFor(expectedSize));
+    }
+
+    public static IntHashSet of(int... values) {
+        IntHashSet set = new IntHashSet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int i = slot(value, mask); table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = table.length - 1;
+        int i = slot(value, mask);
+        while (table[i] != 0) {
+            if (table[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        ObjectIntMap.checkFull(size - (containsZero ? 1 : 0), threshold, table.length);
+        table[i] = value;
+        if (++size > threshold && table.length < ObjectIntMap.MAX_CAPACITY) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = table.length - 1;
+        for (int i = slot(value, mask); table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == value) {
+                shiftBack(i, mask);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int value : table) {
+            if (value != 0) {
+                action.accept(value);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int[] index = {0};
+        forEach(value -> result[index[0]++] = value);
+        return result;
+    }
+
+    // === 집합 연산 (새 셋 반환) ===
+
+    // 합집합
+    public IntHashSet union(IntHashSet other) {
+        IntHashSet result = new IntHashSet(size + other.size);
+        forEach(result::add);
+        other.forEach(result::add);
+        return result;
+    }
+
+    // 교집합 - 작은 쪽을 돌면서 큰 쪽에서 찾음
+    public IntHashSet intersection(IntHashSet other) {
+        IntHashSet small = size <= other.size ? this : other;
+        IntHashSet large = small == this ? other : this;
+        IntHashSet result = new IntHashSet(small.size);
+        small.forEach(value -> {
+            if (large.contains(value)) result.add(value);
+        });
+        return result;
+    }
+
+    // 차집합 (this - other)
+    public IntHashSet difference(IntHashSet other) {
+        IntHashSet result = new IntHashSet(size);
+        forEach(value -> {
+            if (!other.contains(value)) result.add(value);
+        });
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        int[] values = toArray();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+
+    private void shiftBack(int gap, int mask) {
+        int i = (gap + 1) & mask;
+        while (table[i] != 0) {
+            int home = slot(table[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                table[gap] = table[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int value : old) {
+            if (value != 0) {
+                int i = slot(value, mask);
+                while (table[i] != 0) i = (i + 1) & mask;
+                table[i] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        threshold = ObjectIntMap.thresholdFor(capacity);
+    }
+
+    private static int slot(int value, int mask) {
+        int h = value * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
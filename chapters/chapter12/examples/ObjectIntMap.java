@@ -0,0 +1,210 @@
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Chapter 15 - 값이 int인 전용 해시 맵 (개방 주소법)
+ *
+ * HashMap<String, Integer>는 항목마다 Node 객체 + Integer 박싱 객체를 만듦
+ * ObjectIntMap은 키 배열(Object[])과 값 배열(int[]) 두 개만 사용
+ * - 충돌 시 다음 칸으로 이동 (선형 탐사)
+ * - 삭제 시 뒤쪽 항목을 당겨서 빈칸을 메움 (삭제 표시 없음)
+ * - 예상 크기를 알면 처음부터 그 크기로 만들어 재해싱 방지
+ */
+public class ObjectIntMap<K> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    static final int MAX_CAPACITY = 1 << 30;  // 배열 크기 상한 (2의 거듭제곱)
+
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private int threshold;
+
+    public ObjectIntMap() {
+        this(16);
+    }
+
+    // expectedSize개를 넣어도 확장되지 않는 크기로 생성
+    public ObjectIntMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int getOrDefault(K key, int defaultValue) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    // 새 키면 true, 기존 값을 덮어썼으면 false
+    public boolean put(K key, int value) {
+        int index = insertionIndex(key);
+        if (keys[index] != null) {
+            values[index] = value;
+            return false;
+        }
+        insertAt(index, key, value);
+        return true;
+    }
+
+    public boolean putIfAbsent(K key, int value) {
+        int index = insertionIndex(key);
+        if (keys[index] != null) {
+            return false;
+        }
+        insertAt(index, key, value);
+        return true;
+    }
+
+    // Map.merge와 같음 - 없으면 value, 있으면 function(기존값, value)
+    public int merge(K key, int value, IntBinaryOperator function) {
+        int index = insertionIndex(key);
+        if (keys[index] != null) {
+            values[index] = function.applyAsInt(values[index], value);
+            return values[index];
+        }
+        insertAt(index, key, value);
+        return value;
+    }
+
+    // 단어 카운팅용: merge(key, delta, Integer::sum)과 같지만 람다 호출 없음
+    public int addTo(K key, int delta) {
+        int index = insertionIndex(key);
+        if (keys[index] != null) {
+            return values[index] += delta;
+        }
+        insertAt(index, key, delta);
+        return delta;
+    }
+
+    public boolean remove(K key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+
+    private int indexOf(Object key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 키가 있으면 그 칸, 없으면 넣을 빈칸
+    private int insertionIndex(Object key) {
+        if (key == null) {
+            throw new NullPointerException("null 키는 허용하지 않습니다");
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    // insertionIndex가 찾은 빈칸에 바로 넣음 (같은 키로 다시 탐사하지 않음)
+    private void insertAt(int index, Object key, int value) {
+        checkFull(size, threshold, keys.length);
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold) {
+            allocateAndRehash(keys.length * 2);
+        }
+    }
+
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int i = (gap + 1) & mask;
+        while (keys[i] != null) {
+            int home = slot(keys[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[gap] = null;
+    }
+
+    private void allocateAndRehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != null) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        threshold = thresholdFor(capacity);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(1, expectedSize) / LOAD_FACTOR) + 1;
+        return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    static int thresholdFor(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    }
+
+    // 새 항목을 넣기 전에 호출 - 최대 크기에서는 더 키울 수 없으므로 부하율을 넘기 전에 거절
+    // (끝까지 채우면 탐사 길이가 테이블 크기에 가까워짐)
+    static void checkFull(int size, int threshold, int capacity) {
+        if (capacity == MAX_CAPACITY && size >= threshold) {
+            throw new IllegalStateException("최대 용량 초과: " + size);
+        }
+    }
+
+    private static int slot(Object key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;  // 비슷한 해시값도 고르게 분산
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
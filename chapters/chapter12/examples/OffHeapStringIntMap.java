@@ -0,0 +1,467 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Chapter 15 - 힙 바깥(off-heap)에 저장하는 Map<String, Integer>
+ *
+ * HashMap은 항목마다 Node, String, Integer 객체를 힙에 만들어서
+ * 항목이 수천만 개가 되면 GC가 그 객체들을 전부 훑느라 오래 멈춤
+ * 이 맵은 키와 값을 다이렉트 ByteBuffer(힙 바깥 메모리)에 바이트로 저장
+ * → 힙에는 버퍼 객체 몇 개만 남으므로 GC 비용이 항목 수와 무관
+ *
+ * - 인덱스: 칸당 16바이트 [해시(4) 값(4) 키 위치(8)], 선형 탐사, 삭제 시 뒤쪽 당기기
+ * - 키 저장소: 64MB 슬랩에 [길이(2) UTF-8 바이트]를 이어 붙임
+ *   (삭제된 키 자리는 낭비가 커지면 같은 크기로 재해싱하면서 정리 - 확장할 때는 키를 옮기지 않음)
+ * - 조회할 때 String을 바이트로 바꾸지 않고 문자 단위로 바로 비교
+ *   (짝 없는 서로게이트 문자는 getBytes()처럼 '?'로 저장됨)
+ *
+ * 다이렉트 메모리 한도는 -XX:MaxDirectMemorySize로 조정
+ *
+ * 실행: javac OffHeapStringIntMap.java && java OffHeapStringIntMap
+ */
+public class OffHeapStringIntMap extends AbstractMap<String, Integer> {
+
+    private static final int SLOT_BYTES = 16;
+    private static final int PAGE_SLOTS = 1 << 20;       // 인덱스 페이지 하나 = 16MB
+    private static final int SLAB_BYTES = 64 << 20;      // 키 슬랩 하나 = 64MB
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private ByteBuffer[] index;
+    private long capacity;
+    private long mask;
+    private int size;
+    private long threshold;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int slabPosition = SLAB_BYTES;  // 첫 put에서 슬랩 할당
+    private long liveKeyBytes;
+    private long wastedKeyBytes;
+
+    public OffHeapStringIntMap() {
+        this(1024);
+    }
+
+    public OffHeapStringIntMap(int expectedSize) {
+        allocateIndex(Math.max(16, Long.highestOneBit((long) (expectedSize / LOAD_FACTOR) + 1) << 1));
+    }
+
+    // === Map 연산 ===
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && find((String) key) >= 0;
+    }
+
+    @Override
+    public Integer get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        long slot = find((String) key);
+        return slot >= 0 ? value(slot) : null;
+    }
+
+    @Override
+    public Integer getOrDefault(Object key, Integer defaultValue) {
+        Integer value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public Integer put(String key, Integer value) {
+        Objects.requireNonNull(key, "null 키는 허용하지 않습니다");
+        Objects.requireNonNull(value, "null 값은 허용하지 않습니다");
+        int hash = hash(key);
+        long slot = hash & mask;
+        while (keyRef(slot) != 0) {
+            if (hash(slot) == hash && matches(key, keyRef(slot))) {
+                int previous = value(slot);
+                setValue(slot, value);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        writeSlot(slot, hash, value, storeKey(key));
+        if (++size > threshold) {
+            rehash(capacity * 2, false);
+        }
+        return null;
+    }
+
+    @Override
+    public Integer remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        long slot = find((String) key);
+        if (slot < 0) {
+            return null;
+        }
+        int previous = value(slot);
+        removeAt(slot);
+        if (wastedKeyBytes > SLAB_BYTES && wastedKeyBytes > liveKeyBytes) {
+            rehash(capacity, true);  // 같은 크기로 다시 만들면서 삭제된 키 자리 정리
+        }
+        return previous;
+    }
+
+    // 칸 하나 삭제 (정리용 재해싱은 하지 않음 - 순회 중 삭제에서도 사용)
+    private void removeAt(long slot) {
+        int keyBytes = 2 + keyLength(keyRef(slot));
+        liveKeyBytes -= keyBytes;
+        wastedKeyBytes += keyBytes;
+        shiftBack(slot);
+        size--;
+    }
+
+    @Override
+    public void clear() {
+        slabs.clear();
+        slabPosition = SLAB_BYTES;
+        liveKeyBytes = 0;
+        wastedKeyBytes = 0;
+        size = 0;
+        allocateIndex(16);
+    }
+
+    // 순회할 때만 키를 String으로 만듦
+    @Override
+    public Set<Map.Entry<String, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Integer>> iterator() {
+                return new Iterator<>() {
+                    private Set<Long> visitedAhead;  // 삭제로 앞쪽에서 뒤쪽으로 옮겨진, 이미 반환한 키
+                    private long slot = advance(0);
+                    private long last = -1;
+
+                    private long advance(long from) {
+                        while (from < capacity && (keyRef(from) == 0
+                                || visitedAhead != null && visitedAhead.contains(keyRef(from)))) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < capacity;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Integer> next() {
+                        if (slot >= capacity) {
+                            throw new NoSuchElementException();
+                        }
+                        long current = slot;
+                        last = current;
+                        slot = advance(slot + 1);
+                        return new SimpleEntry<>(readKey(keyRef(current)), value(current)) {
+                            @Override
+                            public Integer setValue(Integer value) {
+                                OffHeapStringIntMap.this.setValue(current, Objects.requireNonNull(value));
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    // 삭제하면 뒤쪽 항목이 당겨지므로 지운 칸부터 다시 확인
+                    // 클러스터가 배열 끝에서 0번 칸으로 이어지면 이미 반환한 앞쪽 항목이
+                    // 뒤쪽으로 당겨질 수 있어서, 그 키는 건너뛰도록 기록
+                    // (순회 중에는 정리용 재해싱을 하지 않음 - 칸 위치가 바뀌지 않도록)
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        long removed = last;
+                        last = -1;
+                        if (clusterWrapsFrom(removed)) {
+                            if (visitedAhead == null) visitedAhead = new HashSet<>();
+                            for (long s = 0; s < removed && keyRef(s) != 0; s++) {
+                                visitedAhead.add(keyRef(s));
+                            }
+                        }
+                        removeAt(removed);
+                        slot = advance(removed);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                OffHeapStringIntMap.this.clear();
+            }
+        };
+    }
+
+    // 힙 바깥에서 사용 중인 바이트 수
+    public long offHeapBytes() {
+        return capacity * SLOT_BYTES + (long) slabs.size() * SLAB_BYTES;
+    }
+
+    // === 인덱스 ===
+
+    private long find(String key) {
+        int hash = hash(key);
+        for (long slot = hash & mask; keyRef(slot) != 0; slot = (slot + 1) & mask) {
+            if (hash(slot) == hash && matches(key, keyRef(slot))) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // slot부터 빈칸 없이 배열 끝까지 이어지고 0번 칸도 차 있으면 true
+    private boolean clusterWrapsFrom(long slot) {
+        if (keyRef(0) == 0) {
+            return false;
+        }
+        for (long s = slot; s < capacity; s++) {
+            if (keyRef(s) == 0) return false;
+        }
+        return true;
+    }
+
+    private void shiftBack(long gap) {
+        long slot = (gap + 1) & mask;
+        while (keyRef(slot) != 0) {
+            long home = hash(slot) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                writeSlot(gap, hash(slot), value(slot), keyRef(slot));
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        writeSlot(gap, 0, 0, 0);
+    }
+
+    // 인덱스를 새 크기로 만듦
+    // compactKeys면 살아 있는 키만 새 슬랩으로 복사, 아니면 슬랩은 그대로 두고 키 위치만 새 인덱스로 옮김
+    private void rehash(long newCapacity, boolean compactKeys) {
+        ByteBuffer[] oldIndex = index;
+        long oldCapacity = capacity;
+        List<ByteBuffer> oldSlabs = null;
+        if (compactKeys) {
+            oldSlabs = new ArrayList<>(slabs);
+            slabs.clear();
+            slabPosition = SLAB_BYTES;
+            liveKeyBytes = 0;
+            wastedKeyBytes = 0;
+        }
+        allocateIndex(newCapacity);
+
+        for (long old = 0; old < oldCapacity; old++) {
+            ByteBuffer page = oldIndex[(int) (old / PAGE_SLOTS)];
+            int at = (int) (old % PAGE_SLOTS) * SLOT_BYTES;
+            long ref = page.getLong(at + 8);
+            if (ref == 0) continue;
+            int hash = page.getInt(at);
+            long slot = hash & mask;
+            while (keyRef(slot) != 0) slot = (slot + 1) & mask;
+            writeSlot(slot, hash, page.getInt(at + 4), compactKeys ? copyKey(oldSlabs, ref) : ref);
+        }
+    }
+
+    private void allocateIndex(long newCapacity) {
+        int pages = (int) Math.max(1, (newCapacity + PAGE_SLOTS - 1) / PAGE_SLOTS);
+        int pageSlots = (int) Math.min(newCapacity, PAGE_SLOTS);
+        index = new ByteBuffer[pages];
+        for (int i = 0; i < pages; i++) {
+            index[i] = ByteBuffer.allocateDirect(pageSlots * SLOT_BYTES);
+        }
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        threshold = (long) (newCapacity * LOAD_FACTOR);
+    }
+
+    private ByteBuffer page(long slot) {
+        return index[(int) (slot / PAGE_SLOTS)];
+    }
+
+    private static int at(long slot) {
+        return (int) (slot % PAGE_SLOTS) * SLOT_BYTES;
+    }
+
+    private int hash(long slot) { return page(slot).getInt(at(slot)); }
+    private int value(long slot) { return page(slot).getInt(at(slot) + 4); }
+    private long keyRef(long slot) { return page(slot).getLong(at(slot) + 8); }
+
+    private void setValue(long slot, int value) {
+        page(slot).putInt(at(slot) + 4, value);
+    }
+
+    private void writeSlot(long slot, int hash, int value, long keyRef) {
+        ByteBuffer page = page(slot);
+        int at = at(slot);
+        page.putInt(at, hash);
+        page.putInt(at + 4, value);
+        page.putLong(at + 8, keyRef);
+    }
+
+    // === 키 슬랩 ===
+    // 키 위치 = (슬랩 번호 << 32 | 슬랩 내 위치) + 1  (0은 빈칸 표시)
+
+    private long storeKey(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);  // 새 키를 넣을 때만 인코딩
+        return appendKey(bytes, 0, bytes.length);
+    }
+
+    private long copyKey(List<ByteBuffer> from, long ref) {
+        ByteBuffer slab = from.get(slabIndex(ref));
+        int offset = slabOffset(ref);
+        int length = slab.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        slab.get(offset + 2, bytes);
+        return appendKey(bytes, 0, length);
+    }
+
+    private long appendKey(byte[] bytes, int from, int length) {
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("키가 너무 깁니다: " + length + "바이트");
+        }
+        if (slabPosition + 2 + length > SLAB_BYTES) {
+            slabs.add(ByteBuffer.allocateDirect(SLAB_BYTES));
+            slabPosition = 0;
+        }
+        ByteBuffer slab = slabs.get(slabs.size() - 1);
+        int offset = slabPosition;
+        slab.putShort(offset, (short) length);
+        slab.put(offset + 2, bytes, from, length);
+        slabPosition += 2 + length;
+        liveKeyBytes += 2 + length;
+        return ((long) (slabs.size() - 1) << 32 | offset) + 1;
+    }
+
+    private int keyLength(long ref) {
+        return slabs.get(slabIndex(ref)).getShort(slabOffset(ref)) & 0xFFFF;
+    }
+
+    private String readKey(long ref) {
+        ByteBuffer slab = slabs.get(slabIndex(ref));
+        int offset = slabOffset(ref);
+        byte[] bytes = new byte[slab.getShort(offset) & 0xFFFF];
+        slab.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 저장된 UTF-8 바이트와 String을 문자 단위로 비교 (변환 객체 없음)
+    private boolean matches(String key, long ref) {
+        ByteBuffer slab = slabs.get(slabIndex(ref));
+        int offset = slabOffset(ref);
+        int length = slab.getShort(offset) & 0xFFFF;
+        int p = offset + 2;
+        int end = p + length;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean pair = Character.isHighSurrogate(c) && i + 1 < key.length()
+                && Character.isLowSurrogate(key.charAt(i + 1));
+            if (!pair && Character.isSurrogate(c)) {
+                c = '?';  // getBytes()와 같은 치환
+            }
+            if (c < 0x80) {
+                if (p >= end || slab.get(p++) != (byte) c) return false;
+            } else if (c < 0x800) {
+                if (p + 2 > end
+                    || slab.get(p++) != (byte) (0xC0 | c >> 6)
+                    || slab.get(p++) != (byte) (0x80 | c & 0x3F)) return false;
+            } else if (pair) {
+                int cp = Character.toCodePoint(c, key.charAt(++i));
+                if (p + 4 > end
+                    || slab.get(p++) != (byte) (0xF0 | cp >> 18)
+                    || slab.get(p++) != (byte) (0x80 | cp >> 12 & 0x3F)
+                    || slab.get(p++) != (byte) (0x80 | cp >> 6 & 0x3F)
+                    || slab.get(p++) != (byte) (0x80 | cp & 0x3F)) return false;
+            } else {
+                if (p + 3 > end
+                    || slab.get(p++) != (byte) (0xE0 | c >> 12)
+                    || slab.get(p++) != (byte) (0x80 | c >> 6 & 0x3F)
+                    || slab.get(p++) != (byte) (0x80 | c & 0x3F)) return false;
+            }
+        }
+        return p == end;
+    }
+
+    private static int slabIndex(long ref) {
+        return (int) ((ref - 1) >>> 32);
+    }
+
+    private static int slabOffset(long ref) {
+        return (int) (ref - 1);
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public static void main(String[] args) {
+        // === MapExample과 같은 사용법 ===
+        System.out.println("=== 기본 사용 ===");
+        Map<String, Integer> scores = new OffHeapStringIntMap();
+        scores.put("홍길동", 95);
+        scores.put("김철수", 88);
+        scores.put("이영희", 92);
+        scores.put("홍길동", 97);
+        System.out.println("scores: " + scores);
+        System.out.println("get(\"홍길동\"): " + scores.get("홍길동"));
+        System.out.println("get(\"없는사람\"): " + scores.get("없는사람"));
+        System.out.println("getOrDefault(\"없는사람\", 0): " + scores.getOrDefault("없는사람", 0));
+        System.out.println("containsKey(\"김철수\"): " + scores.containsKey("김철수"));
+        scores.remove("김철수");
+        System.out.println("remove(\"김철수\"): " + scores);
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            System.out.println(entry.getKey() + " = " + entry.getValue());
+        }
+
+        // === 항목 수에 따른 GC 시간 비교 ===
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        System.out.println("\n=== " + n + "개 저장 후 Full GC 시간 ===");
+
+        Map<String, Integer> heapMap = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) heapMap.put("user" + i, i);
+        System.out.printf("HashMap:             GC %5dms, 힙 사용 %6.1fMB%n", gcMillis(), usedHeapMb());
+        heapMap = null;
+
+        OffHeapStringIntMap offHeap = new OffHeapStringIntMap(n);
+        for (int i = 0; i < n; i++) offHeap.put("user" + i, i);
+        System.out.printf("OffHeapStringIntMap: GC %5dms, 힙 사용 %6.1fMB, 힙 바깥 %6.1fMB%n",
+            gcMillis(), usedHeapMb(), offHeap.offHeapBytes() / 1e6);
+        System.out.println("확인: user12345 = " + offHeap.get("user12345") + ", 크기 = " + offHeap.size());
+    }
+
+    // System.gc() 3회에 걸린 GC 시간
+    private static long gcMillis() {
+        long before = totalGcMillis();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return totalGcMillis() - before;
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static double usedHeapMb() {
+        Runtime runtime = Runtime.getRuntime();
+        return (runtime.totalMemory() - runtime.freeMemory()) / 1e6;
+    }
+}
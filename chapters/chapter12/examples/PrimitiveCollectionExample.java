@@ -0,0 +1,106 @@
+import java.lang.ref.Reference;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Chapter 15 - 기본형 전용 컬렉션 예제 + JDK 컬렉션과 비교
+ *
+ * 실행: javac ObjectIntMap.java IntHashSet.java PrimitiveCollectionExample.java && java PrimitiveCollectionExample
+ */
+public class PrimitiveCollectionExample {
+    public static void main(String[] args) {
+        // === MapExample과 같은 사용법 ===
+        System.out.println("=== ObjectIntMap ===");
+        ObjectIntMap<String> scores = new ObjectIntMap<>();
+        scores.put("홍길동", 95);
+        scores.put("김철수", 88);
+        scores.put("이영희", 92);
+        scores.put("홍길동", 97);
+        System.out.println("scores: " + scores);
+        System.out.println("getOrDefault(\"없는사람\", 0): " + scores.getOrDefault("없는사람", 0));
+        scores.remove("김철수");
+        System.out.println("remove(\"김철수\"): " + scores);
+
+        ObjectIntMap<String> wordCount = new ObjectIntMap<>();
+        for (String word : new String[]{"apple", "banana", "apple", "orange", "banana", "apple"}) {
+            wordCount.addTo(word, 1);
+        }
+        System.out.println("단어 빈도: " + wordCount);
+
+        // === SetExample과 같은 집합 연산 ===
+        System.out.println("\n=== IntHashSet 집합 연산 ===");
+        IntHashSet set1 = IntHashSet.of(1, 2, 3, 4, 5);
+        IntHashSet set2 = IntHashSet.of(4, 5, 6, 7, 8);
+        System.out.println("합집합: " + set1.union(set2));
+        System.out.println("교집합: " + set1.intersection(set2));
+        System.out.println("차집합 (set1 - set2): " + set1.difference(set2));
+
+        // === JDK 컬렉션과 비교 ===
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "user" + i;  // 키 문자열은 양쪽이 같은 객체를 공유 → 맵 자체 비용만 비교
+        }
+        System.out.println("\n=== " + n + "개 비교 ===");
+
+        build("HashMap<String,Integer>", n, () -> {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < n; i++) map.put(keys[i], i + 1000);
+            return map;
+        });
+        build("ObjectIntMap<String>", n, () -> {
+            ObjectIntMap<String> map = new ObjectIntMap<>(n);  // 미리 크기 지정
+            for (int i = 0; i < n; i++) map.put(keys[i], i + 1000);
+            return map;
+        });
+
+        Random random = new Random(42);
+        int[] a = random.ints(n, 0, n * 2).toArray();
+        int[] b = random.ints(n, 0, n * 2).toArray();
+
+        Set<Integer> hashA = build("HashSet<Integer>", n, () -> {
+            Set<Integer> set = new HashSet<>();
+            for (int v : a) set.add(v);
+            return set;
+        });
+        Set<Integer> hashB = new HashSet<>();
+        for (int v : b) hashB.add(v);
+
+        IntHashSet intA = build("IntHashSet", n, () -> {
+            IntHashSet set = new IntHashSet(n);
+            for (int v : a) set.add(v);
+            return set;
+        });
+        IntHashSet intB = new IntHashSet(n);
+        for (int v : b) intB.add(v);
+
+        long start = System.nanoTime();
+        Set<Integer> jdkIntersection = new HashSet<>(hashA);
+        jdkIntersection.retainAll(hashB);
+        System.out.printf("HashSet 교집합:    %6.1fms (%d개)%n", (System.nanoTime() - start) / 1e6, jdkIntersection.size());
+
+        start = System.nanoTime();
+        IntHashSet intIntersection = intA.intersection(intB);
+        System.out.printf("IntHashSet 교집합: %6.1fms (%d개)%n", (System.nanoTime() - start) / 1e6, intIntersection.size());
+    }
+
+    // 만드는 데 걸린 시간과 남은 힙 크기 측정 (측정이 끝날 때까지 결과를 붙잡아 둠)
+    private static <T> T build(String label, int count, Supplier<T> builder) {
+        long before = usedMemory();
+        long start = System.nanoTime();
+        T result = builder.get();
+        long nanos = System.nanoTime() - start;
+        long bytes = usedMemory() - before;
+        Reference.reachabilityFence(result);
+        System.out.printf("%-24s %5.1f B/항목, 만들기 %6.1fms%n", label, (double) bytes / count, nanos / 1e6);
+        return result;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
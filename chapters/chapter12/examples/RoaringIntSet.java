@@ -0,0 +1,562 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Chapter 15 - 압축 비트맵 정수 셋 (Roaring 방식)
+ *
+ * 정수를 상위 16비트(키)로 묶고, 묶음마다 하위 16비트를 컨테이너에 저장
+ * - 원소가 적은 묶음(4096개 이하): 정렬된 char[] (ArrayContainer, 원소당 2바이트)
+ * - 원소가 많은 묶음: 65536비트 비트맵 long[1024] (BitmapContainer, 고정 8KB)
+ * 집합 연산은 long 단위(64개씩)로 AND / OR / ANDNOT → 해싱도, 원소별 객체도 없음
+ * 연산 결과의 개수만 필요하면 결과 셋을 만들지 않고 비트 수만 셈
+ *
+ * 순회 순서는 부호 없는(unsigned) 정수 순서 (음수는 양수 뒤에 나옴)
+ *
+ * 실행: javac ObjectIntMap.java IntHashSet.java RoaringIntSet.java && java RoaringIntSet
+ */
+public class RoaringIntSet {
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;  // 컨테이너 수
+
+    public static RoaringIntSet of(int... values) {
+        RoaringIntSet set = new RoaringIntSet();
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    // [from, to) 범위 전체 추가
+    public static RoaringIntSet range(int from, int to) {
+        RoaringIntSet set = new RoaringIntSet();
+        for (int value = from; value < to; value++) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    public boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int index = find(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertAt(index, high, new ArrayContainer());
+        }
+        int before = containers[index].cardinality();
+        containers[index] = containers[index].add((char) value);
+        return containers[index].cardinality() > before;
+    }
+
+    public boolean remove(int value) {
+        int index = find((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        int before = containers[index].cardinality();
+        containers[index] = containers[index].remove((char) value);
+        if (containers[index].cardinality() == 0) {
+            removeAt(index);
+            return true;
+        }
+        return containers[index].cardinality() < before;
+    }
+
+    public boolean contains(int value) {
+        int index = find((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int[] index = {0};
+        forEach(value -> result[index[0]++] = value);
+        return result;
+    }
+
+    // === 집합 연산 ===
+
+    // 교집합 (AND)
+    public RoaringIntSet and(RoaringIntSet other) {
+        RoaringIntSet result = new RoaringIntSet();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality() > 0) result.append(keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // 합집합 (OR)
+    public RoaringIntSet or(RoaringIntSet other) {
+        RoaringIntSet result = new RoaringIntSet();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // 차집합 (ANDNOT: this - other)
+    public RoaringIntSet andNot(RoaringIntSet other) {
+        RoaringIntSet result = new RoaringIntSet();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            Container c = j < other.size && other.keys[j] == keys[i]
+                ? containers[i].andNot(other.containers[j])
+                : containers[i].copy();
+            if (c.cardinality() > 0) result.append(keys[i], c);
+        }
+        return result;
+    }
+
+    // === 결과를 만들지 않고 개수만 ===
+
+    public int andCardinality(RoaringIntSet other) {
+        int total = 0;
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else total += containers[i++].andCardinality(other.containers[j++]);
+        }
+        return total;
+    }
+
+    public int orCardinality(RoaringIntSet other) {
+        return cardinality() + other.cardinality() - andCardinality(other);
+    }
+
+    public int andNotCardinality(RoaringIntSet other) {
+        return cardinality() - andCardinality(other);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    // === 내부: 키 배열 관리 ===
+
+    private int find(char high) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < high) lo = mid + 1;
+            else if (keys[mid] > high) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private void insertAt(int index, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    // 키가 오름차순으로 들어올 때 (연산 결과 만들기)
+    private void append(char high, Container container) {
+        insertAt(size, high, container);
+    }
+
+    // === 컨테이너 ===
+
+    private abstract static class Container {
+        static final int ARRAY_MAX = 4096;  // 이보다 많으면 비트맵이 더 작음 (4096 * 2바이트 = 8KB)
+
+        abstract Container add(char low);
+        abstract Container remove(char low);
+        abstract boolean contains(char low);
+        abstract int cardinality();
+        abstract void forEach(int base, IntConsumer action);
+        abstract Container copy();
+        abstract BitmapContainer toBitmap();
+
+        Container and(Container other) {
+            if (this instanceof BitmapContainer && other instanceof BitmapContainer) {
+                return ((BitmapContainer) this).and((BitmapContainer) other);
+            }
+            ArrayContainer small = this instanceof ArrayContainer ? (ArrayContainer) this : (ArrayContainer) other;
+            Container large = small == this ? other : this;
+            return small.filter(large, true);
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer && other instanceof ArrayContainer
+                    && cardinality() + other.cardinality() <= ARRAY_MAX) {
+                return ((ArrayContainer) this).merge((ArrayContainer) other);
+            }
+            BitmapContainer result = toBitmap().copyBitmap();
+            return result.orInPlace(other).shrink();
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other, false);
+            }
+            BitmapContainer result = ((BitmapContainer) this).copyBitmap();
+            return result.andNotInPlace(other).shrink();
+        }
+
+        int andCardinality(Container other) {
+            if (this instanceof BitmapContainer && other instanceof BitmapContainer) {
+                return ((BitmapContainer) this).andCardinality((BitmapContainer) other);
+            }
+            ArrayContainer small = this instanceof ArrayContainer ? (ArrayContainer) this : (ArrayContainer) other;
+            Container large = small == this ? other : this;
+            return small.countIn(large);
+        }
+    }
+
+    // 정렬된 char[] (원소가 적을 때)
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) return this;
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);  // 너무 커지면 비트맵으로 전환
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+
+        // keep=true: other에 있는 것만, keep=false: other에 없는 것만
+        ArrayContainer filter(Container other, boolean keep) {
+            char[] result = new char[Math.max(1, cardinality)];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == keep) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        int countIn(Container other) {
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) count++;
+            }
+            return count;
+        }
+
+        // 정렬된 두 배열 병합
+        ArrayContainer merge(ArrayContainer other) {
+            char[] result = new char[Math.max(1, cardinality + other.cardinality)];
+            int i = 0, j = 0, count = 0;
+            while (i < cardinality && j < other.cardinality) {
+                char a = values[i], b = other.values[j];
+                if (a < b) { result[count++] = a; i++; }
+                else if (a > b) { result[count++] = b; j++; }
+                else { result[count++] = a; i++; j++; }
+            }
+            while (i < cardinality) result[count++] = values[i++];
+            while (j < other.cardinality) result[count++] = other.values[j++];
+            return new ArrayContainer(result, count);
+        }
+    }
+
+    // 65536비트 비트맵 (원소가 많을 때)
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | (1L << low);
+            if (before != words[low >>> 6]) cardinality++;
+        }
+
+        @Override
+        Container add(char low) {
+            set(low);
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (before != words[low >>> 6]) cardinality--;
+            return cardinality <= ARRAY_MAX ? shrink() : this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {  // 켜진 비트만 건너뛰며 순회
+                    action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return copyBitmap();
+        }
+
+        BitmapContainer copyBitmap() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        Container and(BitmapContainer other) {
+            long[] result = new long[1024];
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                result[w] = words[w] & other.words[w];
+                count += Long.bitCount(result[w]);
+            }
+            return new BitmapContainer(result, count).shrink();
+        }
+
+        int andCardinality(BitmapContainer other) {
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                count += Long.bitCount(words[w] & other.words[w]);
+            }
+            return count;
+        }
+
+        BitmapContainer orInPlace(Container other) {
+            if (other instanceof BitmapContainer) {
+                long[] o = ((BitmapContainer) other).words;
+                int count = 0;
+                for (int w = 0; w < 1024; w++) {
+                    words[w] |= o[w];
+                    count += Long.bitCount(words[w]);
+                }
+                cardinality = count;
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) set(array.values[i]);
+            }
+            return this;
+        }
+
+        BitmapContainer andNotInPlace(Container other) {
+            if (other instanceof BitmapContainer) {
+                long[] o = ((BitmapContainer) other).words;
+                int count = 0;
+                for (int w = 0; w < 1024; w++) {
+                    words[w] &= ~o[w];
+                    count += Long.bitCount(words[w]);
+                }
+                cardinality = count;
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char low = array.values[i];
+                    if (contains(low)) {
+                        words[low >>> 6] &= ~(1L << low);
+                        cardinality--;
+                    }
+                }
+            }
+            return this;
+        }
+
+        // 원소가 적어지면 배열 컨테이너로
+        Container shrink() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            char[] values = new char[Math.max(1, cardinality)];
+            int[] count = {0};
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+
+    public static void main(String[] args) {
+        // === SetExample과 같은 집합 연산 ===
+        System.out.println("=== 집합 연산 ===");
+        RoaringIntSet set1 = RoaringIntSet.of(1, 2, 3, 4, 5);
+        RoaringIntSet set2 = RoaringIntSet.of(4, 5, 6, 7, 8);
+        System.out.println("set1: " + set1);
+        System.out.println("set2: " + set2);
+        System.out.println("합집합: " + set1.or(set2) + " (개수만: " + set1.orCardinality(set2) + ")");
+        System.out.println("교집합: " + set1.and(set2) + " (개수만: " + set1.andCardinality(set2) + ")");
+        System.out.println("차집합 (set1 - set2): " + set1.andNot(set2) + " (개수만: " + set1.andNotCardinality(set2) + ")");
+
+        // === 밀집된 ID 셋 비교 ===
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Random random = new Random(42);
+        RoaringIntSet roaringA = new RoaringIntSet();
+        RoaringIntSet roaringB = new RoaringIntSet();
+        IntHashSet intA = new IntHashSet(n);
+        IntHashSet intB = new IntHashSet(n);
+        Set<Integer> hashA = new HashSet<>();
+        Set<Integer> hashB = new HashSet<>();
+        for (int id = 0; id < n; id++) {
+            if (random.nextInt(2) == 0) { roaringA.add(id); intA.add(id); hashA.add(id); }  // ID의 약 50%
+            if (random.nextInt(3) == 0) { roaringB.add(id); intB.add(id); hashB.add(id); }  // ID의 약 33%
+        }
+        System.out.println("\n=== ID 0~" + n + " 중 무작위 A(50%), B(33%) ===");
+
+        for (int round = 0; round < 3; round++) {  // 마지막 회차만 출력 (앞은 워밍업)
+            long start = System.nanoTime();
+            Set<Integer> jdk = new HashSet<>(hashA);
+            jdk.retainAll(hashB);
+            long jdkNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int primitive = intA.intersection(intB).size();
+            long intNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int roaring = roaringA.and(roaringB).cardinality();
+            long roaringNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int countOnly = roaringA.andCardinality(roaringB);
+            long countNanos = System.nanoTime() - start;
+
+            if (round == 2) {
+                System.out.printf("HashSet retainAll:       %7.2fms (%d개)%n", jdkNanos / 1e6, jdk.size());
+                System.out.printf("IntHashSet intersection: %7.2fms (%d개)%n", intNanos / 1e6, primitive);
+                System.out.printf("RoaringIntSet and:       %7.2fms (%d개)%n", roaringNanos / 1e6, roaring);
+                System.out.printf("RoaringIntSet 개수만:    %7.2fms (%d개)%n", countNanos / 1e6, countOnly);
+            }
+        }
+
+        long[] sum = {0};
+        long start = System.nanoTime();
+        roaringA.forEach(id -> sum[0] += id);
+        System.out.printf("RoaringIntSet 순회:      %7.2fms (합계 %d)%n", (System.nanoTime() - start) / 1e6, sum[0]);
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.*;
+
+/**
+ * Chapter 17 - 도시별 집계 실시간 유지 (증분 집계)
+ *
+ * groupingBy(counting / averagingInt)는 조회할 때마다 전체 목록을 다시 훑음
+ * 추가 / 삭제 / 이사할 때 집계값만 고쳐두면 조회는 O(1)
+ * - 인원수, 나이 합계, 평균
+ * - 최소/최대: 나이별 인원을 TreeMap(정렬된 멀티셋)으로 유지 (삭제돼도 다시 스캔할 필요 없음)
+ *   나이 범위 제한 없음 - 집계 때문에 저장이 실패하는 일이 없도록
+ *
+ * 실행: javac StreamPractice.java CityAggregates.java && java CityAggregates
+ */
+public class CityAggregates {
+
+    private final Map<String, Stats> byCity = new HashMap<>();
+
+    public synchronized void add(User user) {
+        byCity.computeIfAbsent(user.getCity(), k -> new Stats()).add(user.getAge());
+    }
+
+    public synchronized void remove(User user) {
+        Stats stats = byCity.get(user.getCity());
+        if (stats == null) {
+            throw new IllegalStateException("집계에 없는 도시: " + user.getCity());
+        }
+        stats.remove(user.getAge());
+        if (stats.count == 0) {
+            byCity.remove(user.getCity());
+        }
+    }
+
+    // 정보 변경 (이사, 나이 변경)
+    public synchronized void update(User before, User after) {
+        remove(before);
+        add(after);
+    }
+
+    public synchronized long count(String city) {
+        Stats stats = byCity.get(city);
+        return stats == null ? 0 : stats.count;
+    }
+
+    public synchronized double averageAge(String city) {
+        Stats stats = byCity.get(city);
+        return stats == null ? 0 : (double) stats.sum / stats.count;
+    }
+
+    // StreamCollect의 summarizingInt와 같은 형태로 반환
+    public synchronized IntSummaryStatistics statistics(String city) {
+        Stats stats = byCity.get(city);
+        if (stats == null) {
+            return new IntSummaryStatistics();
+        }
+        return new IntSummaryStatistics(stats.count, stats.min(), stats.max(), stats.sum);
+    }
+
+    // 전체 도시 스냅샷 (도시 수만큼만 순회)
+    public synchronized Map<String, Long> countByCity() {
+        Map<String, Long> result = new HashMap<>();
+        byCity.forEach((city, stats) -> result.put(city, stats.count));
+        return result;
+    }
+
+    public synchronized Map<String, Double> avgAgeByCity() {
+        Map<String, Double> result = new HashMap<>();
+        byCity.forEach((city, stats) -> result.put(city, (double) stats.sum / stats.count));
+        return result;
+    }
+
+    // 도시 하나의 집계값
+    private static class Stats {
+        long count;
+        long sum;
+        final TreeMap<Integer, Integer> ageCounts = new TreeMap<>();  // 나이 → 인원
+
+        int min() {
+            return count == 0 ? Integer.MAX_VALUE : ageCounts.firstKey();
+        }
+
+        int max() {
+            return count == 0 ? Integer.MIN_VALUE : ageCounts.lastKey();
+        }
+
+        void add(int age) {
+            count++;
+            sum += age;
+            ageCounts.merge(age, 1, Integer::sum);
+        }
+
+        void remove(int age) {
+            Integer people = ageCounts.get(age);
+            if (people == null) {
+                throw new IllegalStateException("집계에 없는 나이: " + age);
+            }
+            if (people == 1) {
+                ageCounts.remove(age);
+            } else {
+                ageCounts.put(age, people - 1);
+            }
+            count--;
+            sum -= age;
+        }
+    }
+
+    public static void main(String[] args) {
+        CityAggregates aggregates = new CityAggregates();
+        List<User> users = List.of(
+            new User(1L, "홍길동", 25, "서울"),
+            new User(2L, "김철수", 30, "부산"),
+            new User(3L, "이영희", 28, "서울"),
+            new User(4L, "박지성", 35, "대전"),
+            new User(5L, "김연아", 22, "서울"),
+            new User(6L, "손흥민", 27, "부산")
+        );
+        users.forEach(aggregates::add);
+
+        System.out.println("=== 증분 집계 ===");
+        System.out.println("도시별 인원: " + aggregates.countByCity());
+        System.out.println("도시별 평균 나이: " + aggregates.avgAgeByCity());
+        System.out.println("서울 통계: " + aggregates.statistics("서울"));
+
+        // 김연아가 부산으로 이사 - 전체를 다시 계산하지 않음
+        aggregates.update(users.get(4), new User(5L, "김연아", 22, "부산"));
+        System.out.println("\n김연아 이사 후");
+        System.out.println("도시별 인원: " + aggregates.countByCity());
+        System.out.println("서울 통계: " + aggregates.statistics("서울"));
+        System.out.println("부산 통계: " + aggregates.statistics("부산"));
+
+        aggregates.remove(users.get(3));
+        System.out.println("\n박지성 삭제 후 대전 인원: " + aggregates.count("대전"));
+    }
+}
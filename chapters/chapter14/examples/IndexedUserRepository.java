@@ -0,0 +1,259 @@
+import java.util.*;
+
+/**
+ * Chapter 17 - 인덱스가 있는 User 저장소
+ *
+ * StreamPractice의 filter().findFirst() / anyMatch()는 매번 전체를 훑음 (O(n))
+ * 저장할 때 인덱스를 같이 갱신해두면 조회가 빨라짐
+ * - id 인덱스: long 키 해시 테이블 (Long 박싱 없음) → O(1)
+ * - 도시 인덱스: 도시 → 사용자 목록(posting list) → O(1)
+ * - 나이 인덱스: TreeMap (균형 트리) → 범위 조회 O(log n)
+ * - 도시별 집계: CityAggregates (인원/평균을 저장 시점에 갱신)
+ *
+ * 저장소 자체는 스레드 안전하지 않음 - 한 스레드에서만 쓰거나 호출하는 쪽에서 동기화
+ * (CityAggregates만 동기화되어 있어서, 저장하는 동안 다른 스레드가 집계를 읽는 것은 가능)
+ *
+ * 실행: javac StreamPractice.java UserQueryEngine.java CityAggregates.java IndexedUserRepository.java && java IndexedUserRepository
+ */
+public class IndexedUserRepository {
+
+    private final LongIndex<User> byId = new LongIndex<>();
+    private final Map<String, Set<User>> byCity = new HashMap<>();
+    private final NavigableMap<Integer, Set<User>> byAge = new TreeMap<>();
+    private final CityAggregates cityAggregates = new CityAggregates();
+
+    // 저장 (같은 id가 있으면 교체하고 인덱스도 갱신)
+    // 실패할 수 있는 집계 갱신을 먼저 해서, 예외가 나면 인덱스는 그대로 남음
+    public User save(User user) {
+        User previous = byId.get(user.getId());
+        if (previous != null) {
+            cityAggregates.update(previous, user);
+        } else {
+            cityAggregates.add(user);
+        }
+        byId.put(user.getId(), user);
+        if (previous != null) {
+            removeFrom(byCity, previous.getCity(), previous);
+            removeFrom(byAge, previous.getAge(), previous);
+        }
+        byCity.computeIfAbsent(user.getCity(), k -> new LinkedHashSet<>()).add(user);
+        byAge.computeIfAbsent(user.getAge(), k -> new LinkedHashSet<>()).add(user);
+        return previous;
+    }
+
+    public void saveAll(Collection<User> users) {
+        for (User user : users) {
+            save(user);
+        }
+    }
+
+    public Optional<User> deleteById(long id) {
+        User removed = byId.remove(id);
+        if (removed != null) {
+            unindex(removed);
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public List<User> findByCity(String city) {
+        return new ArrayList<>(byCity.getOrDefault(city, Collections.emptySet()));
+    }
+
+    public boolean existsByCity(String city) {
+        return byCity.containsKey(city);  // 비어 있는 목록은 제거해두므로 키 존재 = 거주자 있음
+    }
+
+    // 나이 범위 조회 (min, max 포함, min > max면 빈 범위)
+    public List<User> findByAgeBetween(int min, int max) {
+        List<User> result = new ArrayList<>();
+        if (min > max) {
+            return result;
+        }
+        for (Set<User> users : byAge.subMap(min, true, max, true).values()) {
+            result.addAll(users);
+        }
+        return result;
+    }
+
+    public int countByAgeBetween(int min, int max) {
+        int count = 0;
+        if (min > max) {
+            return count;
+        }
+        for (Set<User> users : byAge.subMap(min, true, max, true).values()) {
+            count += users.size();
+        }
+        return count;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // 도시별 인원/평균 (조회 시 재계산 없음)
+    public CityAggregates getCityAggregates() {
+        return cityAggregates;
+    }
+
+    private void unindex(User user) {
+        removeFrom(byCity, user.getCity(), user);
+        removeFrom(byAge, user.getAge(), user);
+        cityAggregates.remove(user);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<User>> index, K key, User user) {
+        Set<User> users = index.get(key);
+        if (users != null && users.remove(user) && users.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // long 키 전용 해시 테이블 (선형 탐사, 삭제 시 뒤쪽 항목을 당겨서 빈칸 메움)
+    static class LongIndex<V> {
+        private long[] keys = new long[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        V get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return (V) values[i];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, V value) {
+            if ((size + 1) * 4 > keys.length * 3) {  // 적재율 75% 초과 시 확장
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    V previous = (V) values[i];
+                    values[i] = value;
+                    return previous;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    V removed = (V) values[i];
+                    shiftBack(i, mask);
+                    size--;
+                    return removed;
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void shiftBack(int gap, int mask) {
+            int i = (gap + 1) & mask;
+            while (values[i] != null) {
+                int home = slot(keys[i], mask);
+                // 원래 자리(home)에서 gap까지 거리가 i까지 거리 이하라면 gap으로 당겨도 탐색 가능
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+                i = (i + 1) & mask;
+            }
+            values[gap] = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], (V) oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;  // 연속된 id도 고르게 분산
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    public static void main(String[] args) {
+        IndexedUserRepository repository = new IndexedUserRepository();
+        repository.saveAll(List.of(
+            new User(1L, "홍길동", 25, "서울"),
+            new User(2L, "김철수", 30, "부산"),
+            new User(3L, "이영희", 28, "서울"),
+            new User(4L, "박지성", 35, "대전"),
+            new User(5L, "김연아", 22, "서울"),
+            new User(6L, "손흥민", 27, "부산")
+        ));
+
+        System.out.println("=== 인덱스 조회 ===");
+        repository.findById(3L).ifPresentOrElse(
+            u -> System.out.println("ID 3 찾음: " + u.getName()),
+            () -> System.out.println("ID 3 없음"));
+        System.out.println("서울 거주자: " + repository.findByCity("서울"));
+        System.out.println("서울 거주자 있음: " + repository.existsByCity("서울"));
+        System.out.println("25~30세: " + repository.findByAgeBetween(25, 30));
+
+        // 수정 - 같은 id로 저장하면 인덱스도 같이 바뀜
+        repository.save(new User(4L, "박지성", 36, "서울"));
+        System.out.println("\n박지성 이사 후 서울: " + repository.findByCity("서울"));
+        System.out.println("대전 거주자 있음: " + repository.existsByCity("대전"));
+        System.out.println("도시별 인원: " + repository.getCityAggregates().countByCity());
+
+        // === 스트림 스캔과 비교 ===
+        int rows = 1_000_000;
+        List<User> users = UserQueryEngine.generate(rows, 42);
+        IndexedUserRepository big = new IndexedUserRepository();
+        big.saveAll(users);
+
+        Random random = new Random(7);
+        int lookups = 200;
+        long start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            Long targetId = (long) random.nextInt(rows) + 1;
+            if (users.stream().filter(u -> u.getId().equals(targetId)).findFirst().isPresent()) hits++;
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (big.findById(random.nextInt(rows) + 1).isPresent()) hits++;
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        System.out.printf("%n=== %d행에서 id 조회 %d회 ===%n", rows, lookups);
+        System.out.printf("스트림 스캔: %.2fms, 인덱스: %.3fms (찾은 수 %d)%n", scanNanos / 1e6, indexNanos / 1e6, hits);
+        System.out.println("30~31세: " + big.countByAgeBetween(30, 31) + "명");
+    }
+}
@@ -197,6 +197,9 @@ class UserDTO {
         this.name = name;
     }
 
+    public Long getId() { return id; }
+    public String getName() { return name; }
+
     @Override
     public String toString() {
         return "UserDTO{id=" + id + ", name='" + name + "'}";
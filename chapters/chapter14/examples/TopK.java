@@ -0,0 +1,120 @@
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Chapter 17 - Top-K 수집기와 키셋(seek) 페이징
+ *
+ * sorted() + limit / skip은 한 페이지를 보여주려고 전체를 정렬함 (O(n log n), 메모리 O(n))
+ * 크기 k짜리 힙만 유지하면 O(n log k), 메모리 O(k)
+ *
+ * 키셋 페이징: "몇 번째부터"(offset) 대신 "이전 페이지 마지막 행 다음부터"로 조회
+ * → 뒤쪽 페이지로 가도 비용이 늘지 않음
+ * (정렬 기준이 겹치지 않아야 함 - 나이가 같으면 id로 구분)
+ *
+ * 실행: javac StreamPractice.java UserQueryEngine.java TopK.java && java TopK
+ */
+public class TopK {
+
+    // order 기준 가장 작은 k개 (오름차순)
+    public static <T> Collector<T, ?, List<T>> smallest(int k, Comparator<? super T> order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k는 0 이상이어야 합니다: " + k);
+        }
+        return Collector.of(
+            // 루트 = 남긴 것 중 가장 큰 값 (k가 커도 처음부터 k칸을 잡지 않음)
+            () -> new PriorityQueue<T>(Math.max(1, Math.min(k, 1024)), order.reversed()),
+            (heap, item) -> offer(heap, item, k, order),
+            (left, right) -> {  // 병렬 스트림용 병합
+                for (T item : right) {
+                    offer(left, item, k, order);
+                }
+                return left;
+            },
+            heap -> {
+                List<T> result = new ArrayList<>(heap);
+                result.sort(order);  // k개만 정렬
+                return result;
+            }
+        );
+    }
+
+    // order 기준 가장 큰 k개 (내림차순)
+    public static <T> Collector<T, ?, List<T>> largest(int k, Comparator<? super T> order) {
+        return smallest(k, order.reversed());
+    }
+
+    // 키셋 페이징: after 다음부터 size개 (after가 null이면 첫 페이지)
+    public static <T> List<T> pageAfter(Collection<T> items, T after, int size, Comparator<? super T> order) {
+        Stream<T> stream = items.stream();
+        if (after != null) {
+            stream = stream.filter(item -> order.compare(item, after) > 0);
+        }
+        return stream.collect(smallest(size, order));
+    }
+
+    // offset 페이징 (1부터 시작) - 앞 페이지까지 힙에 담아야 하므로 O(n log(page * size))
+    public static <T> List<T> page(Collection<T> items, int page, int size, Comparator<? super T> order) {
+        if (page < 1 || size < 1) {
+            throw new IllegalArgumentException("page와 size는 1 이상이어야 합니다: page=" + page + ", size=" + size);
+        }
+        int limit = Math.multiplyExact(page, size);  // int 범위를 넘으면 ArithmeticException
+        List<T> upTo = items.stream().collect(smallest(limit, order));
+        return upTo.subList(Math.min(upTo.size(), limit - size), upTo.size());
+    }
+
+    private static <T> void offer(PriorityQueue<T> heap, T item, int k, Comparator<? super T> order) {
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (k > 0 && order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    public static void main(String[] args) {
+        List<User> users = List.of(
+            new User(1L, "홍길동", 25, "서울"),
+            new User(2L, "김철수", 30, "부산"),
+            new User(3L, "이영희", 28, "서울"),
+            new User(4L, "박지성", 35, "대전"),
+            new User(5L, "김연아", 22, "서울"),
+            new User(6L, "손흥민", 27, "부산")
+        );
+        Comparator<User> byAge = Comparator.comparingInt(User::getAge).thenComparing(User::getId);
+
+        System.out.println("=== Top-K ===");
+        System.out.println("나이 많은 3명: " + users.stream().collect(largest(3, byAge)));
+        System.out.println("나이 어린 2명: " + users.stream().collect(smallest(2, byAge)));
+
+        System.out.println("\n=== 키셋 페이징 (2명씩, 나이순) ===");
+        User last = null;
+        for (int pageNo = 1; ; pageNo++) {
+            List<User> page = pageAfter(users, last, 2, byAge);
+            if (page.isEmpty()) break;
+            System.out.println(pageNo + "페이지: " + page);
+            last = page.get(page.size() - 1);  // 다음 페이지 커서
+        }
+        System.out.println("offset 2페이지: " + page(users, 2, 2, byAge));
+
+        // === 전체 정렬과 비교 ===
+        int rows = 2_000_000;
+        List<User> big = UserQueryEngine.generate(rows, 42);
+        int size = 20;
+        for (int i = 0; i < 3; i++) {  // 워밍업
+            big.stream().sorted(byAge).limit(size).toList();
+            big.stream().collect(smallest(size, byAge));
+        }
+
+        long start = System.nanoTime();
+        List<User> sorted = big.stream().sorted(byAge).limit(size).toList();
+        long sortNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<User> heap = big.stream().collect(smallest(size, byAge));
+        long heapNanos = System.nanoTime() - start;
+
+        System.out.printf("%n=== %d행에서 첫 페이지 %d개 ===%n", rows, size);
+        System.out.printf("sorted+limit: %.1fms, Top-K: %.1fms, 결과 동일: %b%n",
+            sortNanos / 1e6, heapNanos / 1e6, sorted.equals(heap));
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Chapter 17 - User 목록을 고정 길이 바이너리 파일로 저장 / 메모리 매핑으로 읽기
+ *
+ * 레코드 크기가 고정이라 i번째 레코드 위치 = 헤더 + i * 레코드 크기
+ * → 파일 전체를 읽어 객체로 만들지 않고, 필요한 필드만 그 위치에서 바로 읽음
+ * → 파일 열기는 헤더만 확인하므로 행 수와 무관하게 빠름 (실제 읽기는 OS가 페이지 단위로)
+ *
+ * 헤더/세그먼트 매핑/문자열 칸 처리는 chapter10의 AccountFile과 같은 방식
+ * (예제는 장마다 따로 컴파일하므로 코드를 공유하지 않고, 레코드 구성만 다름)
+ *
+ * 헤더(16바이트): 매직(4) 버전(4) 레코드 수(8)
+ * 레코드(96바이트): id(8) 나이(4) 이름 길이(2) 이름(42) 도시 길이(2) 도시(38)
+ *
+ * 실행: javac StreamPractice.java UserQueryEngine.java UserFile.java && java UserFile
+ */
+public class UserFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x55534552;  // "USER"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    static final int RECORD_SIZE = 96;
+    private static final int ID = 0;
+    private static final int AGE = 8;
+    private static final int NAME = 12;
+    private static final int NAME_BYTES = 42;
+    private static final int CITY = NAME + 2 + NAME_BYTES;
+    private static final int CITY_BYTES = 38;
+
+    // 매핑 하나는 2GB 미만이어야 하므로 레코드 단위로 나눠서 매핑
+    private static final int RECORDS_PER_SEGMENT = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final long count;
+    private final MappedByteBuffer[] segments;
+
+    private UserFile(FileChannel channel, long count, MappedByteBuffer[] segments) {
+        this.channel = channel;
+        this.count = count;
+        this.segments = segments;
+    }
+
+    // === 쓰기 ===
+
+    public static void write(Path path, Collection<User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(users.size()).flip();
+            writeFully(channel, header);
+
+            ByteBuffer batch = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);  // 4096개씩 모아서 쓰기
+            for (User user : users) {
+                if (batch.remaining() < RECORD_SIZE) {
+                    batch.flip();
+                    writeFully(channel, batch);
+                    batch.clear();
+                }
+                int start = batch.position();
+                batch.putLong(start + ID, user.getId());
+                batch.putInt(start + AGE, user.getAge());
+                putString(batch, start + NAME, NAME_BYTES, user.getName());
+                putString(batch, start + CITY, CITY_BYTES, user.getCity());
+                batch.position(start + RECORD_SIZE);
+            }
+            batch.flip();
+            writeFully(channel, batch);
+        }
+    }
+
+    // === 읽기 (지연 접근) ===
+
+    public static UserFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("User 파일이 아닙니다: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("지원하지 않는 버전: " + version);
+            }
+            long count = header.getLong();
+            if (count < 0) {
+                throw new IOException("레코드 수가 잘못되었습니다: " + count);
+            }
+            if (count > (channel.size() - HEADER_SIZE) / RECORD_SIZE) {  // count * RECORD_SIZE 오버플로 없이 비교
+                throw new IOException("파일이 잘렸습니다: " + path);
+            }
+
+            int segmentCount = (int) ((count + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = (long) s * RECORDS_PER_SEGMENT;
+                long records = Math.min(RECORDS_PER_SEGMENT, count - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+            return new UserFile(channel, count, segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() { return count; }
+    public long id(long index) { return segment(index).getLong(offset(index) + ID); }
+    public int age(long index) { return segment(index).getInt(offset(index) + AGE); }
+    public String name(long index) { return getString(segment(index), offset(index) + NAME, NAME_BYTES); }
+    public String city(long index) { return getString(segment(index), offset(index) + CITY, CITY_BYTES); }
+
+    // 레코드 하나만 객체로 변환
+    public User get(long index) {
+        return new User(id(index), name(index), age(index), city(index));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();  // 매핑은 GC 시점에 해제됨
+    }
+
+    private MappedByteBuffer segment(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return segments[(int) (index / RECORDS_PER_SEGMENT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    // 길이(2바이트) + UTF-8 바이트, 남는 칸은 0
+    private static void putString(ByteBuffer buffer, int at, int maxBytes, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException(maxBytes + "바이트 초과: " + value);
+        }
+        buffer.putShort(at, (short) bytes.length);
+        buffer.put(at + 2, bytes);
+        for (int i = bytes.length; i < maxBytes; i++) {
+            buffer.put(at + 2 + i, (byte) 0);
+        }
+    }
+
+    // 길이가 칸 크기를 넘으면 손상된 레코드
+    private static String getString(ByteBuffer buffer, int at, int maxBytes) {
+        int length = buffer.getShort(at) & 0xFFFF;
+        if (length > maxBytes) {
+            throw new IllegalStateException("손상된 레코드: 문자열 길이 " + length + " > " + maxBytes);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path path = Files.createTempFile("users", ".bin");
+        try {
+            List<User> users = UserQueryEngine.generate(rows, 42);
+
+            long start = System.nanoTime();
+            UserFile.write(path, users);
+            System.out.printf("쓰기: %d행, %.1fMB, %.1fms%n",
+                rows, Files.size(path) / 1e6, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            try (UserFile file = UserFile.open(path)) {
+                System.out.printf("열기: %.2fms (전체 역직렬화 없음)%n", (System.nanoTime() - start) / 1e6);
+
+                System.out.println("첫 레코드: " + file.get(0));
+                System.out.println("마지막 레코드: " + file.get(file.size() - 1));
+
+                // 나이 컬럼만 읽어 평균 (User 객체 생성 없음)
+                start = System.nanoTime();
+                long sum = 0;
+                for (long i = 0; i < file.size(); i++) {
+                    sum += file.age(i);
+                }
+                System.out.printf("평균 나이: %.2f (%.1fms)%n", (double) sum / file.size(), (System.nanoTime() - start) / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
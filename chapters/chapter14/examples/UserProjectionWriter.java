@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Chapter 17 - DTO 없이 바로 직렬화 (id, name 투영)
+ *
+ * map(u -> new UserDTO(...)).toList()는 행마다 DTO 객체 + 리스트 노드를 만들고,
+ * 직렬화할 때 또 문자열을 만듦 → 큰 응답에서는 GC 부담
+ * User에서 id, name을 읽어 재사용 버퍼(byte[])에 바로 씀 → 중간 객체 없음
+ * - JSON: [{"id":1,"name":"홍길동"},...]
+ * - 바이너리: [id(8바이트)][이름 길이(4바이트)][이름 UTF-8] 반복
+ *
+ * 실행: javac StreamPractice.java UserQueryEngine.java UserProjectionWriter.java && java UserProjectionWriter
+ */
+public class UserProjectionWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer;
+    private int position;
+
+    public UserProjectionWriter() {
+        this(8192);
+    }
+
+    public UserProjectionWriter(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    // 버퍼 재사용 (배열은 그대로 두고 위치만 초기화)
+    public UserProjectionWriter reset() {
+        position = 0;
+        return this;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, position);
+    }
+
+    // === JSON ===
+
+    public UserProjectionWriter writeJson(List<User> users) {
+        writeByte('[');
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) writeByte(',');
+            User user = users.get(i);
+            writeAscii("{\"id\":");
+            writeLong(user.getId());
+            writeAscii(",\"name\":\"");
+            writeJsonString(user.getName());
+            writeAscii("\"}");
+        }
+        writeByte(']');
+        return this;
+    }
+
+    // === 바이너리 ===
+
+    public UserProjectionWriter writeBinary(List<User> users) {
+        writeInt(users.size());
+        for (User user : users) {
+            writeRawLong(user.getId());
+            int lengthAt = position;
+            writeInt(0);  // 이름 길이 자리 확보 → 쓰고 나서 채움
+            int start = position;
+            writeUtf8(user.getName(), false);
+            putInt(lengthAt, position - start);
+        }
+        return this;
+    }
+
+    // 버퍼의 바이너리 데이터를 다시 읽기 (확인용)
+    public List<String> readBinaryNames() {
+        List<String> names = new ArrayList<>();
+        int count = getInt(0);
+        int at = 4;
+        for (int i = 0; i < count; i++) {
+            at += 8;  // id
+            int length = getInt(at);
+            at += 4;
+            names.add(new String(buffer, at, length, StandardCharsets.UTF_8));
+            at += length;
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, position, StandardCharsets.UTF_8);
+    }
+
+    // === 기본 쓰기 연산 ===
+
+    private void writeByte(int b) {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeAscii(String s) {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buffer[position++] = (byte) s.charAt(i);
+        }
+    }
+
+    // Long.toString() 없이 숫자를 바로 씀
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void writeRawLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeInt(int value) {
+        ensure(4);
+        putInt(position, value);
+        position += 4;
+    }
+
+    private void putInt(int at, int value) {
+        buffer[at] = (byte) (value >>> 24);
+        buffer[at + 1] = (byte) (value >>> 16);
+        buffer[at + 2] = (byte) (value >>> 8);
+        buffer[at + 3] = (byte) value;
+    }
+
+    private int getInt(int at) {
+        return (buffer[at] & 0xFF) << 24 | (buffer[at + 1] & 0xFF) << 16
+            | (buffer[at + 2] & 0xFF) << 8 | (buffer[at + 3] & 0xFF);
+    }
+
+    private void writeJsonString(String s) {
+        writeUtf8(s, true);
+    }
+
+    // getBytes() 없이 UTF-8 인코딩 (escapeJson이면 따옴표/역슬래시/제어문자 이스케이프)
+    private void writeUtf8(String s, boolean escapeJson) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (escapeJson && (c == '"' || c == '\\')) {
+                    ensure(2);
+                    buffer[position++] = '\\';
+                    buffer[position++] = (byte) c;
+                } else if (escapeJson && c < 0x20) {
+                    ensure(6);
+                    buffer[position++] = '\\';
+                    buffer[position++] = 'u';
+                    buffer[position++] = '0';
+                    buffer[position++] = '0';
+                    buffer[position++] = HEX[c >> 4];
+                    buffer[position++] = HEX[c & 0xF];
+                } else {
+                    ensure(1);
+                    buffer[position++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                ensure(4);
+                buffer[position++] = (byte) (0xF0 | cp >> 18);
+                buffer[position++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                ensure(1);
+                buffer[position++] = '?';  // 짝이 없는 서로게이트 (getBytes()와 같은 치환)
+            } else {
+                ensure(3);
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private void ensure(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<User> users = List.of(
+            new User(1L, "홍길동", 25, "서울"),
+            new User(2L, "김철수", 30, "부산"),
+            new User(3L, "이영희 \"Younghee\"", 28, "서울")
+        );
+        UserProjectionWriter writer = new UserProjectionWriter();
+
+        System.out.println("=== JSON 투영 ===");
+        System.out.println(writer.reset().writeJson(users));
+
+        System.out.println("\n=== 바이너리 투영 ===");
+        writer.reset().writeBinary(users);
+        System.out.println(writer.size() + "바이트, 이름: " + writer.readBinaryNames());
+
+        // === 할당량 비교 ===
+        int rows = 500_000;
+        List<User> big = UserQueryEngine.generate(rows, 42);
+        com.sun.management.ThreadMXBean mx =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        OutputStream sink = OutputStream.nullOutputStream();
+        int rounds = 5;
+
+        java.io.ByteArrayOutputStream expected = new java.io.ByteArrayOutputStream();
+        dtoJson(big, expected);
+        if (!Arrays.equals(expected.toByteArray(), Arrays.copyOf(writer.reset().writeJson(big).buffer, writer.size()))) {
+            throw new IllegalStateException("두 경로의 JSON이 다릅니다");
+        }
+
+        for (int i = 0; i < 3; i++) {  // 워밍업 (버퍼도 최종 크기로 커짐)
+            dtoJson(big, sink);
+            writer.reset().writeJson(big).writeTo(sink);
+        }
+
+        long before = mx.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) dtoJson(big, sink);
+        long dtoNanos = System.nanoTime() - start;
+        long dtoBytes = mx.getCurrentThreadAllocatedBytes() - before;
+
+        before = mx.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) writer.reset().writeJson(big).writeTo(sink);
+        long directNanos = System.nanoTime() - start;
+        long directBytes = mx.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.printf("%n=== %d행 JSON 직렬화 %d회 ===%n", rows, rounds);
+        System.out.printf("UserDTO 경로: %.1f B/행, %.1fms%n", (double) dtoBytes / rows / rounds, dtoNanos / 1e6 / rounds);
+        System.out.printf("직접 투영:    %.1f B/행, %.1fms%n", (double) directBytes / rows / rounds, directNanos / 1e6 / rounds);
+    }
+
+    // 기존 방식: DTO 리스트를 만든 뒤 문자열로 같은 JSON을 만들어 직렬화
+    private static void dtoJson(List<User> users, OutputStream out) throws IOException {
+        List<UserDTO> dtos = users.stream()
+            .map(u -> new UserDTO(u.getId(), u.getName()))
+            .toList();
+        StringBuilder json = new StringBuilder("[");
+        for (UserDTO dto : dtos) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"id\":").append(dto.getId()).append(",\"name\":\"");
+            for (char c : dto.getName().toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    json.append('\\').append(c);
+                } else if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+            json.append("\"}");
+        }
+        out.write(json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.*;
+
+/**
+ * Chapter 17 - 스트림 쿼리 엔진 (순차 / 병렬 / 전용 ForkJoinPool)
+ *
+ * StreamPractice의 쿼리(도시 필터, 나이 정렬, 도시별 그룹/인원/평균)를
+ * 실행 모드만 바꿔서 같은 결과로 실행
+ * (도시별 목록도 원래 순서 유지, 인원수/평균만 ConcurrentMap에 모음)
+ *
+ * 실행: javac StreamPractice.java UserQueryEngine.java && java UserQueryEngine
+ */
+public class UserQueryEngine {
+
+    public enum Mode {
+        SEQUENTIAL,  // 단일 코어
+        PARALLEL,    // 공용 ForkJoinPool (parallelStream)
+        FORK_JOIN    // 전용 ForkJoinPool (공용 풀을 막지 않음)
+    }
+
+    private final List<User> users;
+    private final Mode mode;
+    private final ForkJoinPool pool;
+
+    public UserQueryEngine(List<User> users, Mode mode) {
+        this(users, mode, Runtime.getRuntime().availableProcessors());
+    }
+
+    public UserQueryEngine(List<User> users, Mode mode, int parallelism) {
+        this.users = users;
+        this.mode = mode;
+        this.pool = mode == Mode.FORK_JOIN ? new ForkJoinPool(parallelism) : null;
+    }
+
+    // 도시 필터
+    public List<User> filterByCity(String city) {
+        return run(() -> stream().filter(u -> u.getCity().equals(city)).toList());
+    }
+
+    // 나이순 정렬 (병렬 정렬 후에도 순서 보장)
+    public List<User> sortedByAge() {
+        return run(() -> stream().sorted(Comparator.comparingInt(User::getAge)).toList());
+    }
+
+    // 평균 나이
+    public double averageAge() {
+        return run(() -> stream().mapToInt(User::getAge).average().orElse(0));
+    }
+
+    // 도시별 그룹 - 목록 순서를 지키려고 병렬에서도 groupingBy 사용
+    // (groupingByConcurrent는 빠르지만 각 도시 목록의 순서가 실행마다 달라짐)
+    public Map<String, List<User>> groupByCity() {
+        return run(() -> stream().collect(Collectors.groupingBy(User::getCity)));
+    }
+
+    // 도시별 인원수 - 순서와 무관한 집계라 병렬일 때는 하나의 ConcurrentMap에 바로 모음
+    public Map<String, Long> countByCity() {
+        if (mode == Mode.SEQUENTIAL) {
+            return stream().collect(Collectors.groupingBy(User::getCity, Collectors.counting()));
+        }
+        return run(() -> stream().collect(Collectors.groupingByConcurrent(User::getCity, Collectors.counting())));
+    }
+
+    // 도시별 평균 나이
+    public Map<String, Double> avgAgeByCity() {
+        if (mode == Mode.SEQUENTIAL) {
+            return stream().collect(Collectors.groupingBy(User::getCity, Collectors.averagingInt(User::getAge)));
+        }
+        return run(() -> stream()
+            .collect(Collectors.groupingByConcurrent(User::getCity, Collectors.averagingInt(User::getAge))));
+    }
+
+    // 전용 풀 종료
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private Stream<User> stream() {
+        return mode == Mode.SEQUENTIAL ? users.stream() : users.parallelStream();
+    }
+
+    // FORK_JOIN 모드: 전용 풀 안에서 병렬 스트림을 실행하면 그 풀의 스레드가 작업을 나눠 가짐
+    private <T> T run(Supplier<T> query) {
+        if (pool == null) {
+            return query.get();
+        }
+        return pool.submit(query::get).join();
+    }
+
+    // === 벤치마크: 데이터 크기별로 병렬이 이기는 지점 찾기 ===
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 10_000, 100_000, 1_000_000, 3_000_000};
+        System.out.println("코어 수: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%10s %-12s %10s %10s %10s %10s%n",
+            "rows", "mode", "filter", "sort", "countBy", "avgBy");
+
+        for (int size : sizes) {
+            List<User> users = generate(size, 42);
+            for (Mode mode : Mode.values()) {
+                UserQueryEngine engine = new UserQueryEngine(users, mode);
+                // 워밍업
+                for (int i = 0; i < 3; i++) {
+                    engine.filterByCity("서울");
+                    engine.countByCity();
+                }
+                System.out.printf("%10d %-12s %10.2f %10.2f %10.2f %10.2f%n", size, mode,
+                    timeMillis(() -> engine.filterByCity("서울")),
+                    timeMillis(engine::sortedByAge),
+                    timeMillis(engine::countByCity),
+                    timeMillis(engine::avgAgeByCity));
+                engine.close();
+            }
+        }
+    }
+
+    static List<User> generate(int size, long seed) {
+        String[] cities = {"서울", "부산", "대전", "대구", "광주", "인천", "울산", "제주"};
+        String[] names = {"홍길동", "김철수", "이영희", "박지성", "김연아", "손흥민"};
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(new User((long) i + 1, names[random.nextInt(names.length)],
+                18 + random.nextInt(60), cities[random.nextInt(cities.length)]));
+        }
+        return users;
+    }
+
+    // 5회 실행 중 가장 빠른 시간(ms)
+    private static double timeMillis(Supplier<?> query) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            query.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.*;
+
+/**
+ * Chapter 17 - 컬럼형(columnar) User 저장소
+ *
+ * List<User>는 행마다 User 객체 + Long 박싱 객체를 만들고, 집계할 때마다 포인터를 따라감
+ * UserTable은 컬럼별로 기본형 배열에 저장 → 집계는 배열을 순서대로 읽기만 하면 됨 (캐시 친화적)
+ * - id: long[]
+ * - age: int[]
+ * - city: 사전 인코딩 (도시 문자열은 한 번만 저장, 행에는 int 코드만)
+ *
+ * 실행: javac StreamPractice.java UserQueryEngine.java UserTable.java && java UserTable
+ */
+public class UserTable {
+
+    private long[] ids;
+    private String[] names;
+    private int[] ages;
+    private int[] cityCodes;
+    private int size;
+
+    // 도시 사전: 코드 → 문자열, 문자열 → 코드
+    private final List<String> cityDictionary = new ArrayList<>();
+    private final Map<String, Integer> cityCodeOf = new HashMap<>();
+
+    public UserTable() {
+        this(16);
+    }
+
+    public UserTable(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        ids = new long[capacity];
+        names = new String[capacity];
+        ages = new int[capacity];
+        cityCodes = new int[capacity];
+    }
+
+    public static UserTable from(List<User> users) {
+        UserTable table = new UserTable(users.size());
+        for (User u : users) {
+            table.add(u.getId(), u.getName(), u.getAge(), u.getCity());
+        }
+        return table;
+    }
+
+    public int add(long id, String name, int age, String city) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        names[size] = name;
+        ages[size] = age;
+        cityCodes[size] = encodeCity(city);
+        return size++;
+    }
+
+    public int size() { return size; }
+    public long id(int row) { return ids[checkRow(row)]; }
+    public String name(int row) { return names[checkRow(row)]; }
+    public int age(int row) { return ages[checkRow(row)]; }
+    public String city(int row) { return cityDictionary.get(cityCodes[checkRow(row)]); }
+
+    // 필요할 때만 객체로 변환
+    public User toUser(int row) {
+        return new User(id(row), name(row), age(row), city(row));
+    }
+
+    // === 필터: 조건에 맞는 행 번호 배열 반환 ===
+
+    public int[] filterByCity(String city) {
+        Integer code = cityCodeOf.get(city);
+        if (code == null) {
+            return new int[0];  // 사전에 없는 도시 → 스캔할 필요 없음
+        }
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (cityCodes[row] == code) {  // 문자열 비교 대신 int 비교
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    public int[] filterByMinAge(int minAge) {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (ages[row] >= minAge) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // === 집계 ===
+
+    public long sumAge() {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            sum += ages[row];
+        }
+        return sum;
+    }
+
+    public double averageAge() {
+        return size == 0 ? 0 : (double) sumAge() / size;
+    }
+
+    // 필터 결과(행 번호)에 대한 평균
+    public double averageAge(int[] rows) {
+        if (rows.length == 0) return 0;
+        long sum = 0;
+        for (int row : rows) {
+            sum += ages[row];
+        }
+        return (double) sum / rows.length;
+    }
+
+    // 최연장자 행 번호 (없으면 -1)
+    public int oldestRow() {
+        int oldest = -1;
+        for (int row = 0; row < size; row++) {
+            if (oldest < 0 || ages[row] > ages[oldest]) {
+                oldest = row;
+            }
+        }
+        return oldest;
+    }
+
+    // 도시별 인원수 - 도시 코드를 배열 인덱스로 사용 (해시 조회 없음)
+    public Map<String, Long> countByCity() {
+        long[] counts = new long[cityDictionary.size()];
+        for (int row = 0; row < size; row++) {
+            counts[cityCodes[row]]++;
+        }
+        Map<String, Long> result = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(cityDictionary.get(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    // 도시별 평균 나이
+    public Map<String, Double> avgAgeByCity() {
+        long[] counts = new long[cityDictionary.size()];
+        long[] sums = new long[cityDictionary.size()];
+        for (int row = 0; row < size; row++) {
+            int code = cityCodes[row];
+            counts[code]++;
+            sums[code] += ages[row];
+        }
+        Map<String, Double> result = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(cityDictionary.get(code), (double) sums[code] / counts[code]);
+            }
+        }
+        return result;
+    }
+
+    private int encodeCity(String city) {
+        Integer code = cityCodeOf.get(city);
+        if (code == null) {
+            code = cityDictionary.size();
+            cityDictionary.add(city);
+            cityCodeOf.put(city, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        cityCodes = Arrays.copyOf(cityCodes, capacity);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+        return row;
+    }
+
+    public static void main(String[] args) {
+        List<User> users = List.of(
+            new User(1L, "홍길동", 25, "서울"),
+            new User(2L, "김철수", 30, "부산"),
+            new User(3L, "이영희", 28, "서울"),
+            new User(4L, "박지성", 35, "대전"),
+            new User(5L, "김연아", 22, "서울"),
+            new User(6L, "손흥민", 27, "부산")
+        );
+        UserTable table = UserTable.from(users);
+
+        System.out.println("=== 컬럼형 쿼리 ===");
+        int[] seoul = table.filterByCity("서울");
+        System.out.println("서울 거주자: " + seoul.length + "명, 평균 나이: " + table.averageAge(seoul));
+        System.out.println("25세 이상: " + table.filterByMinAge(25).length + "명");
+        System.out.println("평균 나이: " + table.averageAge());
+        System.out.println("최연장자: " + table.name(table.oldestRow()));
+        System.out.println("도시별 인원: " + table.countByCity());
+        System.out.println("도시별 평균 나이: " + table.avgAgeByCity());
+
+        // === 메모리 / 집계 속도 비교 ===
+        int rows = 2_000_000;
+        System.out.println("\n=== " + rows + "행 비교 ===");
+
+        long before = usedMemory();
+        List<User> list = UserQueryEngine.generate(rows, 42);
+        long listBytes = usedMemory() - before;
+
+        before = usedMemory();
+        UserTable big = UserTable.from(list);
+        long tableBytes = usedMemory() - before;
+
+        System.out.printf("List<User> 힙: %.1f B/행, UserTable 힙: %.1f B/행 (%.1f배)%n",
+            (double) listBytes / rows, (double) tableBytes / rows, (double) listBytes / tableBytes);
+
+        for (int i = 0; i < 5; i++) {  // 워밍업
+            list.stream().mapToInt(User::getAge).average();
+            big.averageAge();
+        }
+        long start = System.nanoTime();
+        double a = list.stream().mapToInt(User::getAge).average().orElse(0);
+        long listNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        double b = big.averageAge();
+        long tableNanos = System.nanoTime() - start;
+        System.out.printf("평균 나이 - List: %.2fms (%.2f), UserTable: %.2fms (%.2f)%n",
+            listNanos / 1e6, a, tableNanos / 1e6, b);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}